@@ -0,0 +1,162 @@
+package components;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.event.ChartChangeEvent;
+import org.jfree.chart.event.ChartChangeListener;
+import services.RefreshScheduler;
+
+// Pengganti ChartPanel untuk chart live. Chart dilukis ke BufferedImage di thread
+// RefreshScheduler, paling sering sekali per frameMillis; EDT hanya menyalin gambar
+// terakhir. Semua perubahan chart sejak frame sebelumnya digabung menjadi satu render.
+//
+// JFreeChart tidak thread-safe, jadi perubahan chart/dataset harus lewat update():
+// mutasi diantrekan dan dijalankan di thread render tepat sebelum frame berikutnya.
+public class AsyncChartPanel extends JPanel implements ChartChangeListener {
+    private final RefreshScheduler.Task renderTask;
+    private final Queue<Runnable> mutations = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AtomicLong changeEvents = new AtomicLong();
+
+    // Hanya disentuh thread render
+    private JFreeChart chart;
+    private Runnable beforeRender;
+    private BufferedImage back;
+
+    // Gambar yang sedang ditampilkan; ditukar di bawah imageLock
+    private final Object imageLock = new Object();
+    private BufferedImage front;
+    private volatile int renderWidth;
+    private volatile int renderHeight;
+
+    // Statistik render
+    private volatile long lastRenderNanos;
+    private volatile long totalRenderNanos;
+    private volatile long frameCount;
+
+    public AsyncChartPanel(String name, JFreeChart chart, long frameMillis) {
+        setOpaque(true);
+        setChart(chart);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                renderWidth = getWidth();
+                renderHeight = getHeight();
+                dirty.set(true);
+            }
+        });
+        renderTask = RefreshScheduler.getInstance().schedule("render-" + name, frameMillis, this::renderFrame);
+    }
+
+    // Jalankan mutasi chart/dataset di thread render sebelum frame berikutnya
+    public void update(Runnable mutation) {
+        mutations.add(mutation);
+        dirty.set(true);
+    }
+
+    public void setChart(JFreeChart next) {
+        update(() -> {
+            if (chart != null) {
+                chart.removeChangeListener(this);
+            }
+            chart = next;
+            if (chart != null) {
+                chart.addChangeListener(this);
+            }
+        });
+    }
+
+    // Dijalankan di thread render setiap frame, misalnya untuk menerbitkan tick yang terkumpul
+    public void setBeforeRender(Runnable hook) {
+        update(() -> beforeRender = hook);
+    }
+
+    public int getRenderWidth() {
+        return renderWidth;
+    }
+
+    @Override
+    public void chartChanged(ChartChangeEvent event) {
+        changeEvents.incrementAndGet();
+        dirty.set(true);
+    }
+
+    // Dipanggil RefreshScheduler; tidak pernah tumpang tindih untuk panel yang sama
+    private void renderFrame() {
+        Runnable mutation;
+        while ((mutation = mutations.poll()) != null) {
+            mutation.run();
+        }
+        if (beforeRender != null) {
+            beforeRender.run();
+        }
+        int width = renderWidth;
+        int height = renderHeight;
+        if (chart == null || width <= 0 || height <= 0 || !dirty.getAndSet(false)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        if (back == null || back.getWidth() != width || back.getHeight() != height) {
+            back = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = back.createGraphics();
+        try {
+            chart.draw(g, new Rectangle(0, 0, width, height));
+        } finally {
+            g.dispose();
+        }
+        synchronized (imageLock) {
+            BufferedImage shown = front;
+            front = back;
+            back = shown;
+        }
+        long elapsed = System.nanoTime() - start;
+        lastRenderNanos = elapsed;
+        totalRenderNanos += elapsed;
+        frameCount++;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        // Latar belakang untuk sisa area saat ukuran baru belum dirender
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        synchronized (imageLock) {
+            if (front != null) {
+                g.drawImage(front, 0, 0, null);
+            }
+        }
+    }
+
+    public long getLastRenderNanos() {
+        return lastRenderNanos;
+    }
+
+    public long getAverageRenderNanos() {
+        long frames = frameCount;
+        return frames == 0 ? 0 : totalRenderNanos / frames;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getChangeEventCount() {
+        return changeEvents.get();
+    }
+
+    // Hentikan render saat window ditutup
+    public void dispose() {
+        renderTask.cancel();
+    }
+}
@@ -0,0 +1,120 @@
+package components;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import services.CryptoRepository;
+
+// Model tabel "All Coins" di ReportFrame, dibaca langsung dari snapshot repository tanpa
+// Object[] per baris. Tick hanya memicu fireTableRowsUpdated untuk baris yang simbolnya
+// berubah, jadi seleksi dan posisi scroll tetap; tabel dibangun ulang (fireTableDataChanged)
+// hanya saat daftar koin berubah. Semua method dipanggil di EDT.
+public class CoinReportTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {
+            "No", "Name", "Symbol", "Price (USD)", "24h Change", "Category", "Last Updated"
+    };
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private CryptoRepository.Snapshot snapshot;
+    private final BitSet changedRows = new BitSet();
+
+    public CoinReportTableModel(CryptoRepository.Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // Refresh manual: ambil snapshot terbaru. Daftar koin sama = hanya nilai sel yang
+    // dilukis ulang (seleksi tetap), daftar berubah = bangun ulang
+    public void setSnapshot(CryptoRepository.Snapshot next) {
+        boolean structureChanged = next.getStructureVersion() != snapshot.getStructureVersion();
+        if (!structureChanged && next.getVersion() <= snapshot.getVersion()) {
+            return;
+        }
+        snapshot = next;
+        if (structureChanged) {
+            fireTableDataChanged();
+        } else if (getRowCount() > 0) {
+            fireTableRowsUpdated(0, getRowCount() - 1);
+        }
+    }
+
+    // Tick harga untuk simbol-simbol ini; hanya baris tersebut yang dilukis ulang
+    public void updatePrices(CryptoRepository.Snapshot next, String[] symbols, int count) {
+        // Snapshot yang tidak lebih baru bisa sudah memuat batch ini (dibaca batch sebelumnya);
+        // barisnya tetap dilukis ulang dari snapshot terbaru
+        if (next.getVersion() < snapshot.getVersion()) {
+            next = snapshot;
+        }
+        if (next.getStructureVersion() != snapshot.getStructureVersion()) {
+            setSnapshot(next);
+            return;
+        }
+        snapshot = next;
+
+        changedRows.clear();
+        for (int i = 0; i < count; i++) {
+            for (int row : next.rowsForSymbol(symbols[i])) {
+                changedRows.set(row);
+            }
+        }
+        // Satu event per rentang baris berurutan
+        int start = changedRows.nextSetBit(0);
+        while (start >= 0) {
+            int end = changedRows.nextClearBit(start);
+            fireTableRowsUpdated(start, end - 1);
+            start = changedRows.nextSetBit(end);
+        }
+    }
+
+    public CryptoRepository.Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0:
+                return row + 1;
+            case 1:
+                return snapshot.getName(row);
+            case 2:
+                return snapshot.getSymbol(row);
+            case 3:
+                return String.format("$%,.2f", snapshot.getPrice(row));
+            case 4: {
+                double percent = snapshot.getPercent(row);
+                return percent >= 0
+                        ? String.format("▲ +%.2f%%", percent)
+                        : String.format("▼ %.2f%%", percent);
+            }
+            case 5:
+                return snapshot.getCategory(row);
+            default: {
+                long nanos = snapshot.getUpdatedNanos(row);
+                return TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(0, nanos), ZoneId.systemDefault()));
+            }
+        }
+    }
+}
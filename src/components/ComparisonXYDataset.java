@@ -0,0 +1,381 @@
+package components;
+
+import java.util.Arrays;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractXYDataset;
+import services.HistoryStore;
+
+// Dataset banyak seri untuk chart perbandingan. Semua seri berbagi satu sumbu waktu:
+// setiap sampleMillis satu kolom ditambahkan berisi harga terakhir tiap seri, jadi
+// data disimpan kolumnar di ring buffer (times[kolom], values[seri][kolom]).
+//
+// Tampilan dibuat ulang per frame oleh publishChanges(): batas bucket dihitung sekali
+// untuk semua seri, lalu tiap seri yang terlihat menyumbang min/max per bucket dalam
+// persen terhadap kolom pertama jendela. Jumlah titik total dibatasi pointBudget dan
+// dibagi rata antar seri terlihat, sehingga biaya render tidak naik dengan jumlah koin.
+// Menyembunyikan seri cukup membalik flag (O(1)); seri tersembunyi tidak didesimasi.
+public class ComparisonXYDataset extends AbstractXYDataset {
+    private static final int BLOCK = 64;
+    private static final int MIN_BUCKETS = 16;
+
+    private final String[] keys;
+    private final int capacity;
+    private final long sampleMillis;
+
+    // Ring buffer kolom, dijaga this
+    private final long[] times;
+    private final double[][] values;
+    private final int[][] blockMin;
+    private final int[][] blockMax;
+    private int write;
+    private int size;
+
+    // Harga terakhir per seri dari feed
+    private final double[] latest;
+    private final boolean[] visible;
+    private int visibleCount;
+
+    private int targetPoints = 1000;
+    private int pointBudget = 100_000;
+    private long windowMillis;  // 0 = seluruh buffer
+    private boolean dirty = true;
+
+    // Tampilan per seri; hanya diganti di publishChanges
+    private long[][] viewTimes;
+    private double[][] viewValues;
+    private int[] viewSizes;
+    private int[] bucketEnds = new int[0];
+    private int lastEmitted = -1;
+    private long lastDecimateNanos;
+
+    public ComparisonXYDataset(String[] keys, double[] initialPrices, int capacity, long sampleMillis) {
+        this.keys = keys.clone();
+        this.capacity = Math.max(BLOCK, (capacity + BLOCK - 1) / BLOCK * BLOCK);
+        this.sampleMillis = sampleMillis;
+        int n = keys.length;
+        times = new long[this.capacity];
+        values = new double[n][this.capacity];
+        blockMin = new int[n][this.capacity / BLOCK];
+        blockMax = new int[n][this.capacity / BLOCK];
+        latest = initialPrices.clone();
+        visible = new boolean[n];
+        Arrays.fill(visible, true);
+        visibleCount = n;
+        viewTimes = new long[n][0];
+        viewValues = new double[n][0];
+        viewSizes = new int[n];
+    }
+
+    // Dari thread feed: harga terbaru satu seri, masuk ke kolom berikutnya
+    public synchronized void setLatest(int series, double price) {
+        latest[series] = price;
+    }
+
+    // Isi ulang buffer dengan riwayat [from, to] yang disampel ke grid kolom. Harga sebelum
+    // tick pertama seri diisi dengan tick pertama itu (atau harga terakhir bila tanpa riwayat).
+    public synchronized void loadHistory(long from, long to, HistoryStore.Series[] histories) {
+        write = 0;
+        size = 0;
+        long columns = (to - from) / sampleMillis + 1;
+        long first = to - (Math.min(columns, capacity) - 1) * sampleMillis;
+        int n = keys.length;
+        int[] cursor = new int[n];
+        double[] column = new double[n];
+        for (int s = 0; s < n; s++) {
+            HistoryStore.Series history = histories[s];
+            column[s] = history != null && history.size() > 0 ? history.getValue(0) : latest[s];
+        }
+        for (long t = first; t <= to; t += sampleMillis) {
+            for (int s = 0; s < n; s++) {
+                HistoryStore.Series history = histories[s];
+                if (history == null) {
+                    continue;
+                }
+                while (cursor[s] < history.size() && history.getTimestamp(cursor[s]) <= t) {
+                    column[s] = history.getValue(cursor[s]);
+                    cursor[s]++;
+                }
+            }
+            appendColumn(t, column);
+        }
+        dirty = true;
+    }
+
+    // Tambah kolom yang sudah jatuh tempo sampai waktu now; dipanggil sebelum setiap frame
+    public synchronized void sample(long now) {
+        if (size == 0) {
+            appendColumn(now, latest);
+            return;
+        }
+        long last = times[physical(size - 1)];
+        if (now - last >= sampleMillis * (long) capacity) {
+            last = now - sampleMillis * (long) capacity;
+        }
+        while (last + sampleMillis <= now) {
+            last += sampleMillis;
+            appendColumn(last, latest);
+        }
+    }
+
+    private void appendColumn(long time, double[] column) {
+        int slot = write;
+        times[slot] = time;
+        int block = slot / BLOCK;
+        boolean blockStart = slot % BLOCK == 0;
+        for (int s = 0; s < keys.length; s++) {
+            double[] series = values[s];
+            series[slot] = column[s];
+            if (blockStart) {
+                blockMin[s][block] = slot;
+                blockMax[s][block] = slot;
+            } else {
+                if (column[s] < series[blockMin[s][block]]) {
+                    blockMin[s][block] = slot;
+                }
+                if (column[s] > series[blockMax[s][block]]) {
+                    blockMax[s][block] = slot;
+                }
+            }
+        }
+        write = slot + 1 == capacity ? 0 : slot + 1;
+        if (size < capacity) {
+            size++;
+        }
+        dirty = true;
+    }
+
+    // O(1): seri tersembunyi dilewati saat desimasi frame berikutnya
+    public synchronized void setSeriesVisible(int series, boolean show) {
+        if (visible[series] != show) {
+            visible[series] = show;
+            visibleCount += show ? 1 : -1;
+            dirty = true;
+        }
+    }
+
+    public synchronized boolean isSeriesVisible(int series) {
+        return visible[series];
+    }
+
+    public synchronized void setTargetPoints(int pixels) {
+        pixels = Math.max(pixels, 2);
+        if (pixels != targetPoints) {
+            targetPoints = pixels;
+            dirty = true;
+        }
+    }
+
+    // Batas total titik yang dilukis untuk semua seri terlihat
+    public synchronized void setPointBudget(int points) {
+        pointBudget = Math.max(points, 2 * MIN_BUCKETS);
+        dirty = true;
+    }
+
+    public synchronized void setWindowMillis(long windowMillis) {
+        if (windowMillis != this.windowMillis) {
+            this.windowMillis = windowMillis;
+            dirty = true;
+        }
+    }
+
+    // Dipanggil di thread render per frame; satu event untuk semua perubahan
+    public boolean publishChanges() {
+        synchronized (this) {
+            if (!dirty) {
+                return false;
+            }
+            dirty = false;
+            long start = System.nanoTime();
+            decimate();
+            lastDecimateNanos = System.nanoTime() - start;
+        }
+        fireDatasetChanged();
+        return true;
+    }
+
+    public synchronized int getColumnCount() {
+        return size;
+    }
+
+    public synchronized int getVisibleSeriesCount() {
+        return visibleCount;
+    }
+
+    public synchronized long getLastDecimateNanos() {
+        return lastDecimateNanos;
+    }
+
+    private int physical(int logical) {
+        int slot = write - size + logical;
+        return slot < 0 ? slot + capacity : slot;
+    }
+
+    private int lowerBound(long time, int from, int to) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (times[physical(mid)] < time) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private void decimate() {
+        Arrays.fill(viewSizes, 0);
+        if (size == 0 || visibleCount == 0) {
+            return;
+        }
+        long last = times[physical(size - 1)];
+        int lo = windowMillis > 0 ? lowerBound(last - windowMillis, 0, size) : 0;
+        int columns = size - lo;
+
+        // Bucket bersama untuk semua seri; per seri paling banyak 2 titik per bucket
+        int buckets = Math.max(MIN_BUCKETS, Math.min(targetPoints, pointBudget / (2 * visibleCount)));
+        buckets = Math.min(buckets, columns);
+        if (bucketEnds.length < buckets) {
+            bucketEnds = new int[buckets];
+        }
+        // Bucket lebar: batas digeser ke awal blok fisik supaya isi bucket seluruhnya
+        // dibaca dari ringkasan blok, bukan dipindai per kolom
+        boolean alignBlocks = columns / buckets >= 2 * BLOCK;
+        int previous = lo;
+        for (int b = 0; b < buckets; b++) {
+            int end = lo + (int) ((long) columns * (b + 1) / buckets);
+            if (alignBlocks && b < buckets - 1) {
+                int aligned = end - physical(end) % BLOCK;
+                end = aligned > previous ? aligned : end;
+            }
+            bucketEnds[b] = end;
+            previous = end;
+        }
+
+        // Plus titik pertama (0%) dan titik terakhir (harga terkini)
+        int perSeries = 2 * buckets + 2;
+        for (int s = 0; s < keys.length; s++) {
+            if (!visible[s]) {
+                continue;
+            }
+            if (viewTimes[s].length < perSeries) {
+                viewTimes[s] = new long[perSeries];
+                viewValues[s] = new double[perSeries];
+            }
+            double base = values[s][physical(lo)];
+            double scale = base != 0 ? 100.0 / base : 0;
+            lastEmitted = -1;
+            emit(s, physical(lo), base, scale);
+            int start = lo;
+            for (int b = 0; b < buckets; b++) {
+                int end = bucketEnds[b];
+                if (end - start == 1) {
+                    emit(s, physical(start), base, scale);
+                } else if (end > start) {
+                    emitMinMax(s, start, end, base, scale);
+                }
+                start = end;
+            }
+            emit(s, physical(size - 1), base, scale);
+        }
+    }
+
+    private void emitMinMax(int s, int from, int to, double base, double scale) {
+        double[] series = values[s];
+        int startSlot = physical(from);
+        int endSlot = physical(to - 1) + 1;
+        int minSlot = startSlot;
+        int maxSlot = startSlot;
+        for (int pass = 0; pass < 2; pass++) {
+            int slot = pass == 0 ? startSlot : 0;
+            int stop = startSlot < endSlot ? endSlot : (pass == 0 ? capacity : endSlot);
+            while (slot < stop) {
+                if (slot % BLOCK == 0 && slot + BLOCK <= stop) {
+                    int block = slot / BLOCK;
+                    if (series[blockMin[s][block]] < series[minSlot]) {
+                        minSlot = blockMin[s][block];
+                    }
+                    if (series[blockMax[s][block]] > series[maxSlot]) {
+                        maxSlot = blockMax[s][block];
+                    }
+                    slot += BLOCK;
+                } else {
+                    if (series[slot] < series[minSlot]) {
+                        minSlot = slot;
+                    }
+                    if (series[slot] > series[maxSlot]) {
+                        maxSlot = slot;
+                    }
+                    slot++;
+                }
+            }
+            if (startSlot < endSlot) {
+                break;
+            }
+        }
+        if (minSlot == maxSlot) {
+            emit(s, minSlot, base, scale);
+        } else if (logical(minSlot) < logical(maxSlot)) {
+            emit(s, minSlot, base, scale);
+            emit(s, maxSlot, base, scale);
+        } else {
+            emit(s, maxSlot, base, scale);
+            emit(s, minSlot, base, scale);
+        }
+    }
+
+    private int logical(int slot) {
+        int index = slot - (write - size);
+        return index >= capacity ? index - capacity : (index < 0 ? index + capacity : index);
+    }
+
+    // Persen perubahan terhadap kolom pertama jendela
+    private void emit(int s, int slot, double base, double scale) {
+        if (slot == lastEmitted) {
+            return;
+        }
+        lastEmitted = slot;
+        int i = viewSizes[s]++;
+        viewTimes[s][i] = times[slot];
+        viewValues[s][i] = (values[s][slot] - base) * scale;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return keys.length;
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int series) {
+        return keys[series];
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return viewSizes[series];
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return viewTimes[series][item];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        return viewValues[series][item];
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return viewTimes[series][item];
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return viewValues[series][item];
+    }
+}
@@ -1,13 +1,48 @@
 package components;
 
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Map;
 
 public class CryptoTable extends JTable {
-    private Color positiveColor = new Color(0, 200, 0);    // HIJAU
-    private Color negativeColor = new Color(220, 0, 0);    // MERAH
+    private static final Color POSITIVE_COLOR = new Color(0, 200, 0);    // HIJAU
+    private static final Color NEGATIVE_COLOR = new Color(220, 0, 0);    // MERAH
+    private static final Color CELL_BACKGROUND = new Color(40, 40, 50);
+    private static final Color SELECTED_BACKGROUND = new Color(70, 130, 180);
+    private static final Color CELL_FOREGROUND = new Color(220, 220, 220);
+    private static final Color CELL_LINE = new Color(60, 60, 70);
+    private static final Map<?, ?> TEXT_HINTS =
+            (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+
+    // Peran kolom, ditentukan sekali dari nama kolom model
+    private static final int ROLE_PLAIN = 0;
+    private static final int ROLE_CHANGE = 1;
+    private static final int ROLE_STATUS = 2;
+    private static final int ROLE_PRICE = 3;
+    private static final int ROLE_SPARKLINE = 4;
+
+    // Jumlah gambar sparkline yang disimpan (FIFO); cukup untuk beberapa layar penuh
+    private static final int MAX_SPARKLINE_IMAGES = 1024;
+    private static final Stroke SPARKLINE_STROKE = new BasicStroke(1.5f);
+
+    private Color positiveColor = POSITIVE_COLOR;
+    private Color negativeColor = NEGATIVE_COLOR;
+
+    private final CryptoCellRenderer htmlRenderer = new CryptoCellRenderer();
+    private final FastCellRenderer fastRenderer = new FastCellRenderer();
+    private final SparklineRenderer sparklineRenderer = new SparklineRenderer();
+    private boolean fastRendering;
+    private int[] columnRoles;
+
+    // Statistik paint untuk mengukur biaya render tabel
+    private long lastPaintNanos;
+    private long totalPaintNanos;
+    private long paintCount;
 
     public CryptoTable(TableModel model) {
         super(model);
@@ -19,8 +54,353 @@ public class CryptoTable extends JTable {
         setFillsViewportHeight(true);
         getTableHeader().setReorderingAllowed(false);
 
-        // Set custom cell renderer untuk SEMUA kolom
-        setDefaultRenderer(Object.class, new CryptoCellRenderer());
+        // Set custom cell renderer untuk SEMUA kolom; mode cepat kecuali -Dcrypto.table.fastRender=false
+        setFastRendering(!"false".equals(System.getProperty("crypto.table.fastRender")));
+    }
+
+    // Mode cepat: warna/border/font di-cache, tanpa HTML, teks digambar langsung
+    public void setFastRendering(boolean fast) {
+        fastRendering = fast;
+        setDefaultRenderer(Object.class, fast ? fastRenderer : htmlRenderer);
+        repaint();
+    }
+
+    public boolean isFastRendering() {
+        return fastRendering;
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e == null || e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+            columnRoles = null;
+        }
+        super.tableChanged(e);
+    }
+
+    private int columnRole(int viewColumn) {
+        int[] roles = columnRoles;
+        if (roles == null) {
+            TableModel model = getModel();
+            roles = new int[model.getColumnCount()];
+            for (int i = 0; i < roles.length; i++) {
+                String name = model.getColumnName(i);
+                if ("24h Change".equals(name)) {
+                    roles[i] = ROLE_CHANGE;
+                } else if ("Status".equals(name)) {
+                    roles[i] = ROLE_STATUS;
+                } else if ("Price (USD)".equals(name)) {
+                    roles[i] = ROLE_PRICE;
+                } else if ("Trend".equals(name)) {
+                    roles[i] = ROLE_SPARKLINE;
+                }
+            }
+            columnRoles = roles;
+        }
+        int modelColumn = convertColumnIndexToModel(viewColumn);
+        return modelColumn < roles.length ? roles[modelColumn] : ROLE_PLAIN;
+    }
+
+    // Kolom Trend memakai renderer sparkline di kedua mode bila model punya riwayat harga
+    @Override
+    public TableCellRenderer getCellRenderer(int row, int column) {
+        if (getModel() instanceof CryptoTableModel && columnRole(column) == ROLE_SPARKLINE) {
+            return sparklineRenderer;
+        }
+        return super.getCellRenderer(row, column);
+    }
+
+    // Berapa kali garis sparkline benar-benar digambar ulang (bukan disalin dari cache)
+    public long getSparklineRedraws() {
+        return sparklineRenderer.redraws;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        super.paintComponent(g);
+        lastPaintNanos = System.nanoTime() - start;
+        totalPaintNanos += lastPaintNanos;
+        paintCount++;
+    }
+
+    public long getLastPaintNanos() { return lastPaintNanos; }
+    public long getPaintCount() { return paintCount; }
+
+    public long getAveragePaintNanos() {
+        return paintCount == 0 ? 0 : totalPaintNanos / paintCount;
+    }
+
+    public void resetPaintStats() {
+        lastPaintNanos = 0;
+        totalPaintNanos = 0;
+        paintCount = 0;
+    }
+
+    // Renderer mode cepat: tidak membuat objek apa pun per sel. Komponen ini hanya
+    // dipakai sebagai "stempel", jadi method validasi/repaint dijadikan no-op seperti
+    // DefaultTableCellRenderer.
+    class FastCellRenderer extends JComponent implements TableCellRenderer {
+        private static final String ARROW_UP = "▲ ";
+        private static final String ARROW_DOWN = "▼ ";
+
+        private String text = "";
+        private Color background = CELL_BACKGROUND;
+        private Font plainFont;
+        private Font boldFont;
+        private Font font;
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                                                       boolean isSelected, boolean hasFocus, int row, int column) {
+            Font tableFont = table.getFont();
+            if (tableFont != plainFont) {
+                plainFont = tableFont;
+                boldFont = tableFont.deriveFont(Font.BOLD);
+            }
+            String valueText = value == null ? "" : value.toString();
+            Color foreground = isSelected ? Color.WHITE : CELL_FOREGROUND;
+            background = isSelected ? SELECTED_BACKGROUND : CELL_BACKGROUND;
+            font = plainFont;
+            text = valueText;
+
+            switch (columnRole(column)) {
+                case ROLE_CHANGE:
+                    if (valueText.indexOf('+') >= 0) {
+                        foreground = positiveColor;
+                        font = boldFont;
+                    } else if (valueText.indexOf('-') >= 0) {
+                        foreground = negativeColor;
+                        font = boldFont;
+                    }
+                    break;
+                case ROLE_STATUS:
+                    if (value != null) {
+                        boolean up = "Naik".equals(valueText);
+                        foreground = up ? positiveColor : negativeColor;
+                        text = up ? ARROW_UP + valueText : ARROW_DOWN + valueText;
+                        font = boldFont;
+                    }
+                    break;
+                case ROLE_PRICE:
+                    if (value != null) {
+                        font = boldFont;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            setForeground(foreground);
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = getWidth();
+            int height = getHeight();
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            g.setColor(CELL_LINE);
+            g.fillRect(0, height - 1, width, 1);
+
+            // Teks di tengah sel, sama seperti renderer HTML; antialias mengikuti setting desktop
+            if (TEXT_HINTS != null) {
+                ((Graphics2D) g).addRenderingHints(TEXT_HINTS);
+            }
+            g.setFont(font);
+            FontMetrics metrics = g.getFontMetrics(font);
+            String shown = text;
+            int textWidth = metrics.stringWidth(shown);
+            if (textWidth > width - 20) {
+                shown = clip(shown, metrics, width - 20);
+                textWidth = metrics.stringWidth(shown);
+            }
+            int x = Math.max(10, (width - textWidth) / 2);
+            int y = (height - 1 - metrics.getHeight()) / 2 + metrics.getAscent();
+            g.setColor(getForeground());
+            g.drawString(shown, x, y);
+        }
+
+        // Potong dengan "..." seperti JLabel; hanya terjadi bila kolom terlalu sempit
+        private String clip(String value, FontMetrics metrics, int available) {
+            int ellipsis = metrics.stringWidth("...");
+            int end = value.length();
+            while (end > 0 && metrics.stringWidth(value.substring(0, end)) + ellipsis > available) {
+                end--;
+            }
+            return value.substring(0, end) + "...";
+        }
+
+        @Override
+        public boolean isOpaque() { return true; }
+        @Override
+        public void invalidate() {}
+        @Override
+        public void validate() {}
+        @Override
+        public void revalidate() {}
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override
+        public void repaint(Rectangle r) {}
+        @Override
+        public void repaint() {}
+        @Override
+        protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override
+        public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
+    }
+
+    // Renderer kolom Trend. Garis setiap simbol digambar sekali ke gambar transparan dan
+    // disimpan per slot SparklineHistory bersama versinya; sel hanya menyalin gambar itu.
+    // Gambar dibuat ulang hanya bila simbolnya tick (versi berubah) atau ukuran sel berubah,
+    // jadi scroll tidak menggambar ulang garis. Slot yang paling lama di-cache dibuang
+    // duluan dan gambarnya dipakai ulang.
+    class SparklineRenderer extends JComponent implements TableCellRenderer {
+        private BufferedImage[] images = new BufferedImage[0];
+        private int[] imageVersions = new int[0];
+        private final int[] cachedSlots = new int[MAX_SPARKLINE_IMAGES];
+        private int cachedCount;
+        private int evictNext;
+        long redraws;
+
+        private BufferedImage image;
+        private Color background = CELL_BACKGROUND;
+        private int[] xs = new int[0];
+        private int[] ys = new int[0];
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                                                       boolean isSelected, boolean hasFocus, int row, int column) {
+            background = isSelected ? SELECTED_BACKGROUND : CELL_BACKGROUND;
+            image = null;
+            SparklineHistory history = ((CryptoTableModel) getModel()).getSparklines();
+            int slot = value == null ? -1 : history.slotOf(value.toString());
+            if (slot < 0) {
+                return this;
+            }
+            int width = table.getColumnModel().getColumn(column).getWidth();
+            int height = table.getRowHeight(row) - 1;
+            if (width <= 0 || height <= 0) {
+                return this;
+            }
+            if (slot >= images.length) {
+                int capacity = Math.max(slot + 1, images.length * 2);
+                images = Arrays.copyOf(images, capacity);
+                imageVersions = Arrays.copyOf(imageVersions, capacity);
+            }
+            BufferedImage cached = images[slot];
+            if (cached == null) {
+                cached = cacheSlot(slot, width, height);
+                drawLine(cached, history, slot);
+            } else if (cached.getWidth() != width || cached.getHeight() != height) {
+                cached = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                images[slot] = cached;
+                drawLine(cached, history, slot);
+            } else if (imageVersions[slot] != history.getVersion(slot)) {
+                drawLine(cached, history, slot);
+            }
+            imageVersions[slot] = history.getVersion(slot);
+            image = cached;
+            return this;
+        }
+
+        // Simpan slot baru; bila cache penuh, buang slot tertua dan pakai ulang gambarnya
+        private BufferedImage cacheSlot(int slot, int width, int height) {
+            BufferedImage reuse = null;
+            if (cachedCount == MAX_SPARKLINE_IMAGES) {
+                int evicted = cachedSlots[evictNext];
+                reuse = images[evicted];
+                images[evicted] = null;
+                cachedSlots[evictNext] = slot;
+                evictNext = (evictNext + 1) % MAX_SPARKLINE_IMAGES;
+            } else {
+                cachedSlots[cachedCount++] = slot;
+            }
+            if (reuse == null || reuse.getWidth() != width || reuse.getHeight() != height) {
+                reuse = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            }
+            images[slot] = reuse;
+            return reuse;
+        }
+
+        private void drawLine(BufferedImage target, SparklineHistory history, int slot) {
+            redraws++;
+            Graphics2D g = target.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, target.getWidth(), target.getHeight());
+                g.setComposite(AlphaComposite.SrcOver);
+
+                int size = history.getSize(slot);
+                if (size < 2) {
+                    return;
+                }
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    double value = history.get(slot, i);
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                int left = 10;
+                int top = 8;
+                int width = target.getWidth() - 2 * left;
+                int height = target.getHeight() - 2 * top;
+                if (width <= 1 || height <= 1) {
+                    return;
+                }
+                double range = max > min ? max - min : 1;
+                int points = history.getPoints();
+                if (xs.length < points) {
+                    xs = new int[points];
+                    ys = new int[points];
+                }
+                for (int i = 0; i < size; i++) {
+                    // Titik terbaru selalu di tepi kanan
+                    xs[i] = left + (int) Math.round((double) (points - size + i) * width / (points - 1));
+                    double value = history.get(slot, i);
+                    ys[i] = top + (max > min ? (int) Math.round((max - value) / range * height) : height / 2);
+                }
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setStroke(SPARKLINE_STROKE);
+                g.setColor(history.get(slot, size - 1) >= history.get(slot, 0) ? positiveColor : negativeColor);
+                g.drawPolyline(xs, ys, size);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = getWidth();
+            int height = getHeight();
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            g.setColor(CELL_LINE);
+            g.fillRect(0, height - 1, width, 1);
+            if (image != null) {
+                g.drawImage(image, 0, 0, null);
+            }
+        }
+
+        @Override
+        public boolean isOpaque() { return true; }
+        @Override
+        public void invalidate() {}
+        @Override
+        public void validate() {}
+        @Override
+        public void revalidate() {}
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override
+        public void repaint(Rectangle r) {}
+        @Override
+        public void repaint() {}
+        @Override
+        protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override
+        public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
     }
 
     // Custom cell renderer - SAMA dengan DataInputFrame
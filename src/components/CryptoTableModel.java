@@ -0,0 +1,275 @@
+package components;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import models.Cryptocurrency;
+import services.CryptoRepository;
+
+// Model tabel dashboard yang membaca langsung dari snapshot repository. Nilai sel
+// dihitung dari kolom harga primitif saat dilukis, jadi tidak ada Object[] per baris.
+// Tick harga hanya memicu fireTableRowsUpdated untuk baris yang simbolnya berubah;
+// tabel baru dibangun ulang saat daftar koin, urutan atau filter pencarian berubah.
+//
+// Urutan harga/perubahan dijaga OrderStatisticTree: tick memindahkan satu baris dalam
+// O(log n) dan hanya rentang posisi yang bergeser yang dilaporkan ke tabel.
+public class CryptoTableModel extends AbstractTableModel {
+    public static final int ACTIONS_COLUMN = 8;
+    private static final int SPARKLINE_POINTS = 40;
+
+    // Nama naik, harga dan perubahan turun (terbesar di atas)
+    public enum SortKey { NONE, NAME, PRICE, CHANGE }
+
+    private static final String[] COLUMNS = {
+            "No", "Name", "Symbol", "Price (USD)", "24h Change", "Trend", "Status", "Last Updated", "Actions"
+    };
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private CryptoRepository.Snapshot snapshot;
+    private SortKey sortKey = SortKey.NONE;
+    private OrderStatisticTree sorted;      // null bila SortKey.NONE
+    private double[] nameRanks = new double[0];
+    private int[] order = new int[0];       // baris model -> baris snapshot (tanpa sort)
+    private int[] modelRowOf = new int[0];  // baris snapshot -> baris model, -1 bila tersaring
+    private String[] filterIds;             // null = tampilkan semua
+    private BitSet filterRows;
+    private final BitSet changedRows = new BitSet();
+    private final SparklineHistory sparklines = new SparklineHistory(SPARKLINE_POINTS);
+
+    public CryptoTableModel(CryptoRepository.Snapshot snapshot) {
+        this.snapshot = snapshot;
+        seedSparklines();
+        rebuildOrder();
+    }
+
+    // Harga terakhir tick per simbol untuk kolom Trend (dibaca CryptoTable)
+    public SparklineHistory getSparklines() {
+        return sparklines;
+    }
+
+    // Koin baru mulai dengan harga sekarang; simbol yang sudah ada tidak berubah
+    private void seedSparklines() {
+        for (int row = 0; row < snapshot.size(); row++) {
+            if (sparklines.slotOf(snapshot.getSymbol(row)) < 0) {
+                sparklines.record(snapshot.getSymbol(row), snapshot.getPrice(row));
+            }
+        }
+    }
+
+    // Ganti seluruh isi (daftar koin berubah)
+    public void setSnapshot(CryptoRepository.Snapshot next) {
+        if (next.getVersion() <= snapshot.getVersion() && next.getStructureVersion() == snapshot.getStructureVersion()) {
+            return;
+        }
+        snapshot = next;
+        seedSparklines();
+        resolveFilter();
+        rebuildOrder();
+        fireTableDataChanged();
+    }
+
+    // Hanya tampilkan koin dengan id ini (hasil SearchIndex); null = semua
+    public void setFilter(String[] ids) {
+        filterIds = ids;
+        resolveFilter();
+        rebuildOrder();
+        fireTableDataChanged();
+    }
+
+    private void resolveFilter() {
+        if (filterIds == null) {
+            filterRows = null;
+            return;
+        }
+        filterRows = new BitSet(snapshot.size());
+        for (String id : filterIds) {
+            int row = snapshot.indexOf(id);
+            if (row >= 0) {
+                filterRows.set(row);
+            }
+        }
+    }
+
+    // Tick harga untuk simbol-simbol ini; hanya baris tersebut yang dilukis ulang
+    public void updatePrices(CryptoRepository.Snapshot next, String[] symbols, int count) {
+        // Batch tidak pernah dibuang: snapshot yang dibaca saat batch ini diantar bisa sama
+        // atau lebih lama dari milik model (batch sebelumnya sudah membaca snapshot yang
+        // memuat batch ini). Simbolnya tetap diproses terhadap snapshot yang terbaru.
+        if (next.getVersion() < snapshot.getVersion()) {
+            next = snapshot;
+        }
+        if (next.getStructureVersion() != snapshot.getStructureVersion()) {
+            setSnapshot(next);
+            return;
+        }
+        snapshot = next;
+
+        changedRows.clear();
+        boolean priceOrdered = sortKey == SortKey.PRICE || sortKey == SortKey.CHANGE;
+        for (int i = 0; i < count; i++) {
+            int[] rows = next.rowsForSymbol(symbols[i]);
+            if (rows.length > 0) {
+                sparklines.record(symbols[i], next.getPrice(rows[0]));
+            }
+            for (int row : rows) {
+                if (sorted == null) {
+                    if (modelRowOf[row] >= 0) {
+                        changedRows.set(modelRowOf[row]);
+                    }
+                } else if (sorted.contains(row)) {
+                    int from = sorted.rank(row);
+                    double key = sortValue(row);
+                    if (!priceOrdered || key == sorted.getKey(row)) {
+                        changedRows.set(from);
+                        continue;
+                    }
+                    // Baris pindah dari posisi from ke to; semua di antaranya bergeser satu
+                    int to = sorted.update(row, key);
+                    changedRows.set(Math.min(from, to), Math.max(from, to) + 1);
+                }
+            }
+        }
+        // Satu event per rentang baris berurutan
+        int start = changedRows.nextSetBit(0);
+        while (start >= 0) {
+            int end = changedRows.nextClearBit(start);
+            fireTableRowsUpdated(start, end - 1);
+            start = changedRows.nextSetBit(end);
+        }
+    }
+
+    public void setSortKey(SortKey sortKey) {
+        this.sortKey = sortKey;
+        rebuildOrder();
+        if (getRowCount() > 0) {
+            fireTableRowsUpdated(0, getRowCount() - 1);
+        }
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    private void rebuildOrder() {
+        int size = snapshot.size();
+        if (sortKey != SortKey.NONE) {
+            if (sortKey == SortKey.NAME) {
+                rankNames();
+            }
+            order = new int[0];
+            modelRowOf = new int[0];
+            sorted = new OrderStatisticTree(size, sortKey != SortKey.NAME);
+            for (int row = 0; row < size; row++) {
+                if (filterRows == null || filterRows.get(row)) {
+                    sorted.insert(row, sortValue(row));
+                }
+            }
+            return;
+        }
+
+        sorted = null;
+        int shown = filterRows == null ? size : filterRows.cardinality();
+        order = new int[shown];
+        int i = 0;
+        for (int row = 0; row < size; row++) {
+            if (filterRows == null || filterRows.get(row)) {
+                order[i++] = row;
+            }
+        }
+        modelRowOf = new int[size];
+        Arrays.fill(modelRowOf, -1);
+        for (i = 0; i < shown; i++) {
+            modelRowOf[order[i]] = i;
+        }
+    }
+
+    // Nama tidak berubah karena tick, jadi cukup diberi peringkat sekali per struktur
+    private void rankNames() {
+        int size = snapshot.size();
+        Integer[] rows = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        Arrays.sort(rows, (a, b) -> snapshot.getName(a).compareTo(snapshot.getName(b)));
+        nameRanks = new double[size];
+        for (int rank = 0; rank < size; rank++) {
+            nameRanks[rows[rank]] = rank;
+        }
+    }
+
+    private double sortValue(int row) {
+        switch (sortKey) {
+            case NAME:
+                return nameRanks[row];
+            case PRICE:
+                return snapshot.getPrice(row);
+            default:
+                return snapshot.getPercent(row);
+        }
+    }
+
+    private int rowAt(int modelRow) {
+        return sorted == null ? order[modelRow] : sorted.select(modelRow);
+    }
+
+    public CryptoRepository.Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Cryptocurrency getCryptoAt(int modelRow) {
+        return snapshot.get(rowAt(modelRow));
+    }
+
+    @Override
+    public int getRowCount() {
+        return sorted == null ? order.length : sorted.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTIONS_COLUMN; // Only actions column is editable
+    }
+
+    @Override
+    public Object getValueAt(int modelRow, int column) {
+        int row = rowAt(modelRow);
+        switch (column) {
+            case 0:
+                return modelRow + 1;
+            case 1:
+                return snapshot.getName(row);
+            case 2:
+                return snapshot.getSymbol(row);
+            case 3:
+                return String.format("$%,.2f", snapshot.getPrice(row));
+            case 4: {
+                double percent = snapshot.getPercent(row);
+                return String.format("%s%.2f%%", percent >= 0 ? "+" : "", percent);
+            }
+            case 5:
+                // Renderer sparkline mencari riwayat lewat simbol
+                return snapshot.getSymbol(row);
+            case 6:
+                return snapshot.getPercent(row) >= 0 ? "Naik" : "Turun";
+            case 7: {
+                long nanos = snapshot.getUpdatedNanos(row);
+                return TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(0, nanos), ZoneId.systemDefault()));
+            }
+            default:
+                return "View Chart";
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package components;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import services.CryptoRepository;
+
+// Peta pasar (treemap squarified) untuk seluruh koin: luas tile sebanding bobot koin,
+// warna mengikuti bucket persen perubahan 24 jam. Layout dihitung sekali per perubahan
+// daftar koin atau ukuran panel lalu dilukis ke BufferedImage. Tick hanya melukis ulang
+// tile yang bucket warnanya berubah, langsung ke gambar cache, dan repaint hanya
+// mencakup area tile tersebut; paintComponent cukup menyalin gambar.
+public class HeatmapPanel extends JPanel {
+    private static final Color BACKGROUND = new Color(30, 30, 40);
+    private static final Color LABEL_COLOR = new Color(240, 240, 240);
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.BOLD, 11);
+    private static final int LABEL_MIN_WIDTH = 34;
+    private static final int LABEL_MIN_HEIGHT = 16;
+
+    // Bucket per 1%: <= -5%, -4%, ..., 0, ..., >= +5%
+    private static final int BUCKET_LIMIT = 5;
+    private static final Color[] BUCKET_COLORS = createBucketColors();
+
+    private CryptoRepository.Snapshot snapshot;
+    private long layoutStructure = -1;
+    private int layoutWidth;
+    private int layoutHeight;
+
+    // Tile per baris snapshot (koordinat piksel, batas kanan/bawah eksklusif)
+    private int[] tileX = new int[0];
+    private int[] tileY = new int[0];
+    private int[] tileRight = new int[0];
+    private int[] tileBottom = new int[0];
+    private byte[] tileBucket = new byte[0];
+
+    private BufferedImage image;
+    private long tilesRepainted;
+    private long lastLayoutNanos;
+
+    public HeatmapPanel(CryptoRepository.Snapshot snapshot) {
+        this.snapshot = snapshot;
+        setBackground(BACKGROUND);
+        setOpaque(true);
+        setToolTipText("");
+    }
+
+    private static Color[] createBucketColors() {
+        Color[] colors = new Color[2 * BUCKET_LIMIT + 1];
+        Color neutral = new Color(60, 60, 70);
+        Color up = new Color(0, 190, 70);
+        Color down = new Color(220, 30, 50);
+        for (int i = 0; i < colors.length; i++) {
+            int level = i - BUCKET_LIMIT;
+            float t = Math.abs(level) / (float) BUCKET_LIMIT;
+            Color target = level >= 0 ? up : down;
+            colors[i] = new Color(
+                    Math.round(neutral.getRed() + (target.getRed() - neutral.getRed()) * t),
+                    Math.round(neutral.getGreen() + (target.getGreen() - neutral.getGreen()) * t),
+                    Math.round(neutral.getBlue() + (target.getBlue() - neutral.getBlue()) * t));
+        }
+        return colors;
+    }
+
+    private static byte bucketOf(double percent) {
+        long level = Math.round(percent);
+        return (byte) (Math.max(-BUCKET_LIMIT, Math.min(BUCKET_LIMIT, level)) + BUCKET_LIMIT);
+    }
+
+    // Bobot tile. Harga mentah membuat satu koin menutupi hampir seluruh peta, jadi
+    // dipakai skala log; urutan ukuran tetap sama dengan urutan harga (Simplified)
+    private static double weightOf(double price) {
+        return Math.log1p(Math.max(price, 0)) + 1e-3;
+    }
+
+    // Daftar koin berubah: layout dihitung ulang pada paint berikutnya
+    public void setSnapshot(CryptoRepository.Snapshot next) {
+        if (next.getStructureVersion() == snapshot.getStructureVersion() && next.getVersion() < snapshot.getVersion()) {
+            return;
+        }
+        snapshot = next;
+        if (next.getStructureVersion() != layoutStructure) {
+            layoutStructure = -1;
+            repaint();
+        }
+    }
+
+    // Tick harga (EDT): hanya tile yang bucket warnanya berubah yang dilukis ulang
+    public void updatePercents(CryptoRepository.Snapshot next, String[] symbols, int count) {
+        if (next.getStructureVersion() != snapshot.getStructureVersion()) {
+            setSnapshot(next);
+            return;
+        }
+        snapshot = next;
+        if (image == null || layoutStructure != next.getStructureVersion()) {
+            return;
+        }
+        Graphics2D g = image.createGraphics();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        try {
+            applyTextHints(g);
+            for (int i = 0; i < count; i++) {
+                for (int row : next.rowsForSymbol(symbols[i])) {
+                    byte bucket = bucketOf(next.getPercent(row));
+                    if (bucket == tileBucket[row]) {
+                        continue;
+                    }
+                    tileBucket[row] = bucket;
+                    paintTile(g, row);
+                    tilesRepainted++;
+                    minX = Math.min(minX, tileX[row]);
+                    minY = Math.min(minY, tileY[row]);
+                    maxX = Math.max(maxX, tileRight[row]);
+                    maxY = Math.max(maxY, tileBottom[row]);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        if (maxX > minX) {
+            repaint(minX, minY, maxX - minX, maxY - minY);
+        }
+    }
+
+    public long getTilesRepainted() {
+        return tilesRepainted;
+    }
+
+    public long getLastLayoutNanos() {
+        return lastLayoutNanos;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (image == null || layoutStructure != snapshot.getStructureVersion()
+                || width != layoutWidth || height != layoutHeight) {
+            rebuild(width, height);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        int x = event.getX();
+        int y = event.getY();
+        if (layoutStructure != snapshot.getStructureVersion()) {
+            return null;
+        }
+        for (int row = 0; row < tileX.length; row++) {
+            if (x >= tileX[row] && x < tileRight[row] && y >= tileY[row] && y < tileBottom[row]) {
+                return String.format("%s (%s): $%,.2f  %+.2f%%", snapshot.getName(row), snapshot.getSymbol(row),
+                        snapshot.getPrice(row), snapshot.getPercent(row));
+            }
+        }
+        return null;
+    }
+
+    // Layout + lukis semua tile ke gambar cache
+    private void rebuild(int width, int height) {
+        long start = System.nanoTime();
+        layoutWidth = width;
+        layoutHeight = height;
+        layoutStructure = snapshot.getStructureVersion();
+        layout(width, height);
+        lastLayoutNanos = System.nanoTime() - start;
+
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, width, height);
+            applyTextHints(g);
+            for (int row = 0; row < tileX.length; row++) {
+                tileBucket[row] = bucketOf(snapshot.getPercent(row));
+                paintTile(g, row);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintTile(Graphics2D g, int row) {
+        int x = tileX[row];
+        int y = tileY[row];
+        int w = tileRight[row] - x;
+        int h = tileBottom[row] - y;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        // Garis pemisah 1px di kanan/bawah bila tile cukup besar
+        int inset = w > 2 && h > 2 ? 1 : 0;
+        g.setColor(BACKGROUND);
+        g.fillRect(x, y, w, h);
+        g.setColor(BUCKET_COLORS[tileBucket[row]]);
+        g.fillRect(x, y, w - inset, h - inset);
+
+        if (w >= LABEL_MIN_WIDTH && h >= LABEL_MIN_HEIGHT) {
+            String label = snapshot.getSymbol(row);
+            FontMetrics metrics = g.getFontMetrics();
+            if (metrics.stringWidth(label) <= w - 6) {
+                g.setColor(LABEL_COLOR);
+                g.drawString(label, x + 3, y + Math.min(h - 4, metrics.getAscent() + 2));
+            }
+        }
+    }
+
+    private static void applyTextHints(Graphics2D g) {
+        g.setFont(LABEL_FONT);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    }
+
+    // Squarified treemap (Bruls dkk.): tile diurutkan dari bobot terbesar, lalu disusun
+    // per baris di sisi pendek area sisa; baris ditutup begitu rasio aspek terburuknya
+    // memburuk. O(n log n) untuk pengurutan, O(n) untuk penyusunan.
+    private void layout(int width, int height) {
+        int n = snapshot.size();
+        tileX = new int[n];
+        tileY = new int[n];
+        tileRight = new int[n];
+        tileBottom = new int[n];
+        tileBucket = new byte[n];
+        if (n == 0) {
+            return;
+        }
+
+        double[] weights = new double[n];
+        double total = 0;
+        for (int row = 0; row < n; row++) {
+            weights[row] = weightOf(snapshot.getPrice(row));
+            total += weights[row];
+        }
+        // Urutkan baris menurut bobot turun (kunci double + nomor baris dalam satu long)
+        long[] keys = new long[n];
+        for (int row = 0; row < n; row++) {
+            keys[row] = ((long) Float.floatToIntBits((float) weights[row]) << 32) | row;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        double[] areas = new double[n];
+        double scale = (double) width * height / total;
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keys[n - 1 - i];
+            areas[i] = weights[order[i]] * scale;
+        }
+
+        double x = 0;
+        double y = 0;
+        double w = width;
+        double h = height;
+        int i = 0;
+        while (i < n) {
+            double side = Math.min(w, h);
+            double sideSquared = side * side;
+            double rowSum = 0;
+            double worst = Double.POSITIVE_INFINITY;
+            int j = i;
+            while (j < n) {
+                double sum = rowSum + areas[j];
+                double sumSquared = sum * sum;
+                // Bobot terurut turun: elemen terbesar di awal baris, terkecil di akhir
+                double next = Math.max(sideSquared * areas[i] / sumSquared, sumSquared / (sideSquared * areas[j]));
+                if (j > i && next > worst) {
+                    break;
+                }
+                rowSum = sum;
+                worst = next;
+                j++;
+            }
+
+            if (w >= h) {
+                // Kolom di sisi kiri
+                double thickness = h > 0 ? rowSum / h : 0;
+                double offset = y;
+                for (int k = i; k < j; k++) {
+                    double length = thickness > 0 ? areas[k] / thickness : 0;
+                    setTile(order[k], x, offset, x + thickness, k == j - 1 ? y + h : offset + length);
+                    offset += length;
+                }
+                x += thickness;
+                w -= thickness;
+            } else {
+                // Baris di sisi atas
+                double thickness = w > 0 ? rowSum / w : 0;
+                double offset = x;
+                for (int k = i; k < j; k++) {
+                    double length = thickness > 0 ? areas[k] / thickness : 0;
+                    setTile(order[k], offset, y, k == j - 1 ? x + w : offset + length, y + thickness);
+                    offset += length;
+                }
+                y += thickness;
+                h -= thickness;
+            }
+            i = j;
+        }
+    }
+
+    private void setTile(int row, double left, double top, double right, double bottom) {
+        tileX[row] = (int) Math.round(left);
+        tileY[row] = (int) Math.round(top);
+        tileRight[row] = (int) Math.round(right);
+        tileBottom[row] = (int) Math.round(bottom);
+    }
+}
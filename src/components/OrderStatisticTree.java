@@ -0,0 +1,205 @@
+package components;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Treap dengan ukuran subtree untuk urutan baris yang selalu terjaga. Node adalah
+// nomor baris (0..capacity-1) dengan kunci double; seri diputus oleh nomor baris.
+// Sisip, hapus, rank dan select semuanya O(log n) rata-rata, jadi satu tick cukup
+// memindahkan satu baris tanpa mengurutkan ulang seluruh daftar.
+public class OrderStatisticTree {
+    private static final int NIL = -1;
+
+    private final boolean descending;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private double[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] sizes;
+    private int[] priorities;
+    private boolean[] present;
+    private int root = NIL;
+
+    public OrderStatisticTree(int capacity, boolean descending) {
+        this.descending = descending;
+        capacity = Math.max(capacity, 1);
+        keys = new double[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+        priorities = new int[capacity];
+        present = new boolean[capacity];
+    }
+
+    public int size() {
+        return root == NIL ? 0 : sizes[root];
+    }
+
+    public boolean contains(int row) {
+        return row < present.length && present[row];
+    }
+
+    public double getKey(int row) {
+        return keys[row];
+    }
+
+    public void insert(int row, double key) {
+        if (row >= keys.length) {
+            grow(Math.max(row + 1, keys.length * 2));
+        }
+        keys[row] = key;
+        left[row] = NIL;
+        right[row] = NIL;
+        sizes[row] = 1;
+        priorities[row] = random.nextInt();
+        present[row] = true;
+        root = insert(root, row);
+    }
+
+    public void remove(int row) {
+        if (!contains(row)) {
+            return;
+        }
+        root = remove(root, row);
+        present[row] = false;
+    }
+
+    // Ganti kunci satu baris; mengembalikan posisi baru
+    public int update(int row, double key) {
+        remove(row);
+        insert(row, key);
+        return rank(row);
+    }
+
+    // Posisi baris dalam urutan (0-based)
+    public int rank(int row) {
+        int rank = 0;
+        int node = root;
+        while (node != NIL) {
+            int cmp = compare(row, node);
+            if (cmp == 0) {
+                return rank + sizeOf(left[node]);
+            }
+            if (cmp < 0) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return -1;
+    }
+
+    // Baris pada posisi k
+    public int select(int k) {
+        int node = root;
+        while (node != NIL) {
+            int leftSize = sizeOf(left[node]);
+            if (k < leftSize) {
+                node = left[node];
+            } else if (k == leftSize) {
+                return node;
+            } else {
+                k -= leftSize + 1;
+                node = right[node];
+            }
+        }
+        throw new IndexOutOfBoundsException("Rank " + k + " of " + size());
+    }
+
+    private int compare(int a, int b) {
+        int cmp = Double.compare(keys[a], keys[b]);
+        if (descending) {
+            cmp = -cmp;
+        }
+        return cmp != 0 ? cmp : Integer.compare(a, b);
+    }
+
+    private int insert(int node, int row) {
+        if (node == NIL) {
+            return row;
+        }
+        if (compare(row, node) < 0) {
+            left[node] = insert(left[node], row);
+            if (priorities[left[node]] > priorities[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            right[node] = insert(right[node], row);
+            if (priorities[right[node]] > priorities[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        updateSize(node);
+        return node;
+    }
+
+    private int remove(int node, int row) {
+        if (node == NIL) {
+            return NIL;
+        }
+        int cmp = compare(row, node);
+        if (cmp < 0) {
+            left[node] = remove(left[node], row);
+        } else if (cmp > 0) {
+            right[node] = remove(right[node], row);
+        } else {
+            return merge(left[node], right[node]);
+        }
+        updateSize(node);
+        return node;
+    }
+
+    // Gabungkan dua subtree (semua kunci a < semua kunci b)
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorities[a] > priorities[b]) {
+            right[a] = merge(right[a], b);
+            updateSize(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        updateSize(b);
+        return b;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        updateSize(node);
+        updateSize(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        updateSize(node);
+        updateSize(pivot);
+        return pivot;
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+
+    private void updateSize(int node) {
+        sizes[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        present = Arrays.copyOf(present, capacity);
+    }
+}
@@ -0,0 +1,353 @@
+package components;
+
+import java.util.Arrays;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractXYDataset;
+import services.HistoryStore;
+
+// Dataset satu seri untuk chart tick live. Titik (waktu, harga) disimpan di ring buffer
+// primitif yang mulai kecil dan tumbuh dua kali lipat sampai kapasitas maksimum; sesudah
+// itu titik tertua tertimpa, jadi append O(1) (amortized saat tumbuh) dan tanpa event.
+// Chart tidak melihat buffer mentah: publishChanges() (mengikuti frame rate) membuat
+// tampilan terdesimasi min/max, dua titik per kolom piksel, lalu mengirim satu
+// DatasetChangeEvent untuk semua titik yang masuk sejak frame lalu.
+//
+// Kontrak thread: append/load/setter boleh dari thread mana pun (dijaga this), tetapi
+// publishChanges() dan getter XYDataset harus di satu thread yang sama, yaitu thread
+// render AsyncChartPanel (lewat setBeforeRender). Array tampilan tidak dikunci; isinya
+// konsisten hanya karena publish dan draw tidak pernah berjalan bersamaan.
+//
+// Min dan max per blok BLOCK titik diringkas saat append, sehingga desimasi jutaan titik
+// cukup membaca ringkasan blok ditambah sisa di tepi setiap bucket.
+public class RingBufferXYDataset extends AbstractXYDataset {
+    private static final int BLOCK = 64;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final Comparable<?> seriesKey;
+    private final int maxCapacity;
+
+    // Ring buffer, dijaga this; write = slot berikutnya yang ditulis. Panjang array selalu
+    // kelipatan BLOCK; buffer baru berputar setelah mencapai maxCapacity.
+    private long[] times;
+    private double[] values;
+    private int write;
+    private int size;
+    private long appended;
+
+    // Ringkasan per blok fisik: slot min dan max
+    private int[] blockMin;
+    private int[] blockMax;
+
+    private int targetPoints = 1000;
+    private long windowMillis;  // 0 = seluruh buffer
+    private boolean dirty;
+
+    // Tampilan terdesimasi; hanya diganti di publishChanges dan dibaca chart.draw, keduanya di thread render
+    private long[] viewTimes = new long[0];
+    private double[] viewValues = new double[0];
+    private int viewSize;
+    private final int[] scanResult = new int[2];
+    private int lastEmitted = -1;
+    private long lastDecimateNanos;
+
+    public RingBufferXYDataset(Comparable<?> seriesKey, int capacity) {
+        this.seriesKey = seriesKey;
+        this.maxCapacity = Math.max(BLOCK, (capacity + BLOCK - 1) / BLOCK * BLOCK);
+        int initial = Math.min(INITIAL_CAPACITY, this.maxCapacity);
+        times = new long[initial];
+        values = new double[initial];
+        blockMin = new int[initial / BLOCK];
+        blockMax = new int[initial / BLOCK];
+    }
+
+    // Dipanggil saat penuh sebelum pernah berputar, jadi isi masih urut dari slot 0
+    private void grow() {
+        int length = (int) Math.min((long) times.length * 2, maxCapacity);
+        times = Arrays.copyOf(times, length);
+        values = Arrays.copyOf(values, length);
+        blockMin = Arrays.copyOf(blockMin, length / BLOCK);
+        blockMax = Arrays.copyOf(blockMax, length / BLOCK);
+        write = size;
+    }
+
+    // Tambah satu titik; waktu yang mundur digeser ke waktu titik terakhir
+    public synchronized void append(long time, double value) {
+        if (size > 0) {
+            time = Math.max(time, times[physical(size - 1)]);
+        }
+        if (size == times.length && size < maxCapacity) {
+            grow();
+        }
+        int slot = write;
+        times[slot] = time;
+        values[slot] = value;
+
+        int block = slot / BLOCK;
+        if (slot % BLOCK == 0) {
+            blockMin[block] = slot;
+            blockMax[block] = slot;
+        } else {
+            if (value < values[blockMin[block]]) {
+                blockMin[block] = slot;
+            }
+            if (value > values[blockMax[block]]) {
+                blockMax[block] = slot;
+            }
+        }
+
+        write = slot + 1 == times.length ? 0 : slot + 1;
+        if (size < times.length) {
+            size++;
+        }
+        appended++;
+        dirty = true;
+    }
+
+    // Isi buffer dengan riwayat (misalnya dari HistoryStore); titik live yang lebih baru
+    // dari riwayat tetap disimpan di belakangnya
+    public synchronized void load(HistoryStore.Series history) {
+        int count = history.size();
+        long last = count > 0 ? history.getTimestamp(count - 1) : Long.MIN_VALUE;
+        int keepFrom = size;
+        while (keepFrom > 0 && times[physical(keepFrom - 1)] > last) {
+            keepFrom--;
+        }
+        int keep = size - keepFrom;
+        long[] liveTimes = new long[keep];
+        double[] liveValues = new double[keep];
+        for (int i = 0; i < keep; i++) {
+            int slot = physical(keepFrom + i);
+            liveTimes[i] = times[slot];
+            liveValues[i] = values[slot];
+        }
+
+        write = 0;
+        size = 0;
+        for (int i = Math.max(0, count - maxCapacity); i < count; i++) {
+            append(history.getTimestamp(i), history.getValue(i));
+        }
+        for (int i = 0; i < keep; i++) {
+            append(liveTimes[i], liveValues[i]);
+        }
+    }
+
+    public synchronized void clear() {
+        write = 0;
+        size = 0;
+        dirty = true;
+    }
+
+    // Jumlah kolom piksel area plot; tampilan berisi paling banyak dua titik per kolom
+    public synchronized void setTargetPoints(int pixels) {
+        pixels = Math.max(pixels, 2);
+        if (pixels != targetPoints) {
+            targetPoints = pixels;
+            dirty = true;
+        }
+    }
+
+    // Tampilkan hanya rentang waktu terakhir ini (0 = seluruh buffer)
+    public synchronized void setWindowMillis(long windowMillis) {
+        if (windowMillis != this.windowMillis) {
+            this.windowMillis = windowMillis;
+            dirty = true;
+        }
+    }
+
+    // Dipanggil di thread render per frame (sebelum chart.draw di thread yang sama);
+    // satu event untuk semua perubahan sejak panggilan terakhir
+    public boolean publishChanges() {
+        synchronized (this) {
+            if (!dirty) {
+                return false;
+            }
+            dirty = false;
+            long start = System.nanoTime();
+            decimate();
+            lastDecimateNanos = System.nanoTime() - start;
+        }
+        fireDatasetChanged();
+        return true;
+    }
+
+    public synchronized int getBufferSize() {
+        return size;
+    }
+
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    public synchronized long getLastDecimateNanos() {
+        return lastDecimateNanos;
+    }
+
+    private int physical(int logical) {
+        int slot = write - size + logical;
+        return slot < 0 ? slot + times.length : slot;
+    }
+
+    private int logical(int slot) {
+        int index = slot - (write - size);
+        int capacity = times.length;
+        return index >= capacity ? index - capacity : (index < 0 ? index + capacity : index);
+    }
+
+    // Indeks logis pertama dengan waktu >= time
+    private int lowerBound(long time, int from, int to) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (times[physical(mid)] < time) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private void decimate() {
+        int buckets = targetPoints;
+        int capacityNeeded = 2 * buckets + 2; // + titik pertama dan terakhir
+        if (viewTimes.length < capacityNeeded) {
+            viewTimes = new long[capacityNeeded];
+            viewValues = new double[capacityNeeded];
+        }
+        viewSize = 0;
+        lastEmitted = -1;
+        if (size == 0) {
+            return;
+        }
+
+        long last = times[physical(size - 1)];
+        int lo = windowMillis > 0 ? lowerBound(last - windowMillis, 0, size) : 0;
+        long first = times[physical(lo)];
+        if (size - lo <= capacityNeeded) {
+            for (int i = lo; i < size; i++) {
+                emit(physical(i));
+            }
+            return;
+        }
+
+        // Bucket dengan lebar waktu sama; setiap bucket menyumbang titik min dan max-nya.
+        // Titik pertama dan terakhir selalu ikut supaya garis berakhir di harga terkini.
+        emit(physical(lo));
+        double span = Math.max(1, last - first + 1);
+        int bucketStart = lo;
+        for (int b = 0; b < buckets && bucketStart < size; b++) {
+            long bucketEnd = first + (long) Math.ceil(span * (b + 1) / buckets);
+            int end = b == buckets - 1 ? size : lowerBound(bucketEnd, bucketStart, size);
+            if (end - bucketStart <= 2) {
+                for (int i = bucketStart; i < end; i++) {
+                    emit(physical(i));
+                }
+            } else if (end > bucketStart) {
+                emitMinMax(bucketStart, end);
+            }
+            bucketStart = end;
+        }
+        emit(physical(size - 1));
+    }
+
+    // Min dan max rentang logis [from, to), dikirim dalam urutan waktu
+    private void emitMinMax(int from, int to) {
+        // Rentang logis dipecah menjadi paling banyak dua rentang fisik
+        int startSlot = physical(from);
+        int endSlot = physical(to - 1) + 1;
+        int[] found = scanResult;
+        found[0] = startSlot;
+        found[1] = startSlot;
+        if (startSlot < endSlot) {
+            scan(startSlot, endSlot, found);
+        } else {
+            scan(startSlot, times.length, found);
+            scan(0, endSlot, found);
+        }
+        int minSlot = found[0];
+        int maxSlot = found[1];
+        if (minSlot == maxSlot) {
+            emit(minSlot);
+        } else if (logical(minSlot) < logical(maxSlot)) {
+            emit(minSlot);
+            emit(maxSlot);
+        } else {
+            emit(maxSlot);
+            emit(minSlot);
+        }
+    }
+
+    // Cari slot min/max di [from, to); blok yang tercakup penuh memakai ringkasannya
+    private void scan(int from, int to, int[] found) {
+        int slot = from;
+        while (slot < to) {
+            if (slot % BLOCK == 0 && slot + BLOCK <= to) {
+                int block = slot / BLOCK;
+                if (values[blockMin[block]] < values[found[0]]) {
+                    found[0] = blockMin[block];
+                }
+                if (values[blockMax[block]] > values[found[1]]) {
+                    found[1] = blockMax[block];
+                }
+                slot += BLOCK;
+            } else {
+                if (values[slot] < values[found[0]]) {
+                    found[0] = slot;
+                }
+                if (values[slot] > values[found[1]]) {
+                    found[1] = slot;
+                }
+                slot++;
+            }
+        }
+    }
+
+    private void emit(int slot) {
+        if (slot == lastEmitted) {
+            return;
+        }
+        lastEmitted = slot;
+        viewTimes[viewSize] = times[slot];
+        viewValues[viewSize] = values[slot];
+        viewSize++;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return 1;
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int series) {
+        return seriesKey;
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return viewSize;
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return viewTimes[item];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        return viewValues[item];
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return viewTimes[item];
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return viewValues[item];
+    }
+}
@@ -32,11 +32,12 @@ public class SidebarPanel extends JPanel {
         // Menu items
         JPanel menuPanel = new JPanel();
         menuPanel.setBackground(new Color(40, 40, 50));
-        menuPanel.setLayout(new GridLayout(5, 1, 0, 10));
+        menuPanel.setLayout(new GridLayout(6, 1, 0, 10));
 
-        String[] menuItems = {"Dashboard", "Detail Chart", "Input Data", "Reports", "Settings"};
+        String[] menuItems = {"Dashboard", "Detail Chart", "Compare", "Input Data", "Reports", "Settings"};
         Icon[] icons = {UIManager.getIcon("FileView.directoryIcon"),
                 UIManager.getIcon("FileView.fileIcon"),
+                UIManager.getIcon("FileChooser.listViewIcon"),
                 UIManager.getIcon("FileChooser.newFolderIcon"),
                 UIManager.getIcon("FileView.detailsViewIcon"),
                 UIManager.getIcon("OptionPane.informationIcon")};
@@ -73,13 +74,16 @@ public class SidebarPanel extends JPanel {
             case 1: // Detail Chart
                 parent.showDetailChart();
                 break;
-            case 2: // Input Data
+            case 2: // Compare
+                parent.showComparison();
+                break;
+            case 3: // Input Data
                 parent.showDataInput();
                 break;
-            case 3: // Reports
+            case 4: // Reports
                 parent.showReport();
                 break;
-            case 4: // Settings
+            case 5: // Settings
                 JOptionPane.showMessageDialog(parent, "Settings feature coming soon!");
                 break;
         }
@@ -0,0 +1,91 @@
+package components;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Harga terakhir per simbol untuk kolom sparkline. Setiap simbol punya slot dengan ring
+// buffer berukuran tetap di satu array double bersama (slot * points), jadi mencatat
+// tick tidak mengalokasikan apa pun. Versi per slot naik setiap tick sehingga renderer
+// tahu gambar sparkline mana yang basi. Hanya dipakai di EDT.
+public class SparklineHistory {
+    private final int points;
+    private final Map<String, Integer> slotBySymbol = new HashMap<>();
+    private double[] values;
+    private int[] heads;    // posisi tulis berikutnya per slot
+    private int[] sizes;
+    private int[] versions;
+    private int slotCount;
+
+    public SparklineHistory(int points) {
+        this.points = Math.max(points, 2);
+        int initial = 64;
+        values = new double[initial * this.points];
+        heads = new int[initial];
+        sizes = new int[initial];
+        versions = new int[initial];
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    // -1 bila simbol belum pernah dicatat
+    public int slotOf(String symbol) {
+        Integer slot = slotBySymbol.get(symbol);
+        return slot == null ? -1 : slot;
+    }
+
+    public void record(String symbol, double price) {
+        Integer slot = slotBySymbol.get(symbol);
+        if (slot == null) {
+            slot = addSlot(symbol);
+        }
+        int s = slot;
+        int size = sizes[s];
+        // Harga sama dengan titik terakhir tidak mengubah garis
+        if (size > 0 && values[s * points + (heads[s] + points - 1) % points] == price) {
+            return;
+        }
+        values[s * points + heads[s]] = price;
+        heads[s] = (heads[s] + 1) % points;
+        if (size < points) {
+            sizes[s] = size + 1;
+        }
+        versions[s]++;
+    }
+
+    public int getSize(int slot) {
+        return sizes[slot];
+    }
+
+    public int getVersion(int slot) {
+        return versions[slot];
+    }
+
+    // Titik ke-i, dari yang tertua
+    public double get(int slot, int i) {
+        int start = heads[slot] - sizes[slot];
+        if (start < 0) {
+            start += points;
+        }
+        int index = start + i;
+        if (index >= points) {
+            index -= points;
+        }
+        return values[slot * points + index];
+    }
+
+    private int addSlot(String symbol) {
+        int slot = slotCount++;
+        if (slot == heads.length) {
+            int capacity = slot * 2;
+            values = Arrays.copyOf(values, capacity * points);
+            heads = Arrays.copyOf(heads, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        slotBySymbol.put(symbol, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,242 @@
+package dashboard;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.List;
+import components.AsyncChartPanel;
+import components.ComparisonXYDataset;
+import org.jfree.chart.*;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import services.CryptoRepository;
+import services.HistoryStore;
+import services.PriceBus;
+
+// Perbandingan banyak koin dalam persen perubahan dari awal jendela waktu yang sama.
+// Harga disampel ke satu grid waktu bersama (riwayat dari HistoryStore lalu tick live),
+// dan setiap seri didesimasi ke resolusi layar di ComparisonXYDataset.
+public class ComparisonChartFrame extends JFrame {
+    private static final int FRAME_MS = 100;
+    private static final long SAMPLE_MS = 5000;
+    private static final long HISTORY_SPAN_MS = 24L * 60 * 60 * 1000;
+    private static final int POINT_BUDGET = 40_000;
+    private static final String[] WINDOW_LABELS = {"1 Hour", "6 Hours", "24 Hours"};
+    private static final long[] WINDOW_MILLIS = {60 * 60_000L, 6 * 60 * 60_000L, 24 * 60 * 60_000L};
+
+    private final CryptoRepository repository;
+    private final String[] symbols;
+    private final Map<String, Integer> seriesBySymbol = new HashMap<>();
+    private final ComparisonXYDataset dataset;
+    private final Color[] seriesColors;
+    private AsyncChartPanel chartPanel;
+    private JList<String> seriesList;
+    private PriceBus.Subscription priceSubscription;
+    private volatile boolean historyLoaded = false;
+
+    public ComparisonChartFrame(List<String> symbolList) {
+        this.repository = CryptoRepository.getInstance();
+        this.symbols = symbolList.toArray(new String[0]);
+        setTitle("Compare " + symbols.length + " Coins - Price Change (%)");
+        setSize(1100, 650);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        CryptoRepository.Snapshot snapshot = repository.snapshot();
+        double[] prices = new double[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            seriesBySymbol.put(symbols[i], i);
+            int[] rows = snapshot.rowsForSymbol(symbols[i]);
+            prices[i] = rows.length > 0 ? snapshot.getPrice(rows[0]) : 0;
+        }
+        int columns = (int) (HISTORY_SPAN_MS / SAMPLE_MS) + 1;
+        dataset = new ComparisonXYDataset(symbols, prices, columns, SAMPLE_MS);
+        dataset.setPointBudget(POINT_BUDGET);
+        dataset.setWindowMillis(WINDOW_MILLIS[0]);
+
+        // Warna tersebar merata di lingkaran hue supaya seri bertetangga mudah dibedakan
+        seriesColors = new Color[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            float hue = (i * 0.618034f) % 1f;
+            seriesColors[i] = Color.getHSBColor(hue, 0.65f, 0.95f);
+        }
+
+        initUI();
+        startLiveUpdates();
+    }
+
+    private void initUI() {
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBackground(new Color(30, 30, 40));
+        mainPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(40, 40, 50));
+        headerPanel.setBorder(new EmptyBorder(10, 15, 10, 15));
+
+        JLabel titleLabel = new JLabel("Price Comparison (" + symbols.length + " coins)");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        titleLabel.setForeground(new Color(220, 220, 220));
+
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        controlsPanel.setBackground(new Color(40, 40, 50));
+
+        JComboBox<String> windowCombo = new JComboBox<>(WINDOW_LABELS);
+        windowCombo.setBackground(new Color(50, 50, 60));
+        windowCombo.setForeground(Color.black);
+        windowCombo.addActionListener(e -> dataset.setWindowMillis(WINDOW_MILLIS[windowCombo.getSelectedIndex()]));
+
+        JButton showAllBtn = new JButton("Show All");
+        showAllBtn.setBackground(new Color(70, 130, 180));
+        showAllBtn.setForeground(Color.black);
+        showAllBtn.addActionListener(e -> setAllVisible(true));
+
+        JButton hideAllBtn = new JButton("Hide All");
+        hideAllBtn.setBackground(new Color(100, 100, 120));
+        hideAllBtn.setForeground(Color.black);
+        hideAllBtn.addActionListener(e -> setAllVisible(false));
+
+        JLabel windowLabel = new JLabel("Window:");
+        windowLabel.setForeground(new Color(180, 180, 180));
+        controlsPanel.add(windowLabel);
+        controlsPanel.add(windowCombo);
+        controlsPanel.add(Box.createHorizontalStrut(20));
+        controlsPanel.add(showAllBtn);
+        controlsPanel.add(hideAllBtn);
+
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        headerPanel.add(controlsPanel, BorderLayout.EAST);
+
+        // Chart dirender di luar EDT; sampel baru dan desimasi dikerjakan sebelum setiap frame
+        chartPanel = new AsyncChartPanel("compare", createChart(), FRAME_MS);
+        chartPanel.setBackground(new Color(40, 40, 50));
+        chartPanel.setBeforeRender(this::prepareFrame);
+
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
+        mainPanel.add(chartPanel, BorderLayout.CENTER);
+        mainPanel.add(createSeriesPanel(), BorderLayout.EAST);
+
+        add(mainPanel);
+    }
+
+    private JFreeChart createChart() {
+        JFreeChart chart = ChartFactory.createTimeSeriesChart(
+                null,
+                "Time",
+                "Change (%)",
+                dataset,
+                false,
+                false,
+                false
+        );
+
+        // Apply dark theme
+        chart.setBackgroundPaint(new Color(40, 40, 50));
+
+        XYPlot plot = chart.getXYPlot();
+        plot.setBackgroundPaint(new Color(30, 30, 40));
+        plot.setDomainGridlinePaint(new Color(60, 60, 70));
+        plot.setRangeGridlinePaint(new Color(60, 60, 70));
+        plot.getDomainAxis().setLabelPaint(new Color(220, 220, 220));
+        plot.getDomainAxis().setTickLabelPaint(new Color(180, 180, 180));
+        plot.getRangeAxis().setLabelPaint(new Color(220, 220, 220));
+        plot.getRangeAxis().setTickLabelPaint(new Color(180, 180, 180));
+
+        // Satu path per seri tanpa antialias; legenda diganti daftar seri di samping
+        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+        renderer.setDrawSeriesLineAsPath(true);
+        for (int i = 0; i < symbols.length; i++) {
+            renderer.setSeriesPaint(i, seriesColors[i], false);
+        }
+        chart.setAntiAlias(false);
+        plot.setRenderer(renderer);
+        return chart;
+    }
+
+    // Daftar simbol; klik membalik visibilitas seri
+    private JPanel createSeriesPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(new Color(40, 40, 50));
+        panel.setBorder(new EmptyBorder(0, 10, 0, 0));
+        panel.setPreferredSize(new Dimension(160, 0));
+
+        seriesList = new JList<>(symbols);
+        seriesList.setBackground(new Color(40, 40, 50));
+        seriesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        seriesList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, false, false);
+                boolean shown = dataset.isSeriesVisible(index);
+                setText((shown ? "■ " : "□ ") + value);
+                setForeground(shown ? seriesColors[index] : new Color(120, 120, 120));
+                setBackground(new Color(40, 40, 50));
+                return this;
+            }
+        });
+        seriesList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = seriesList.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    dataset.setSeriesVisible(index, !dataset.isSeriesVisible(index));
+                    seriesList.repaint(seriesList.getCellBounds(index, index));
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(seriesList);
+        scrollPane.getViewport().setBackground(new Color(40, 40, 50));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
+    }
+
+    private void setAllVisible(boolean show) {
+        for (int i = 0; i < symbols.length; i++) {
+            dataset.setSeriesVisible(i, show);
+        }
+        seriesList.repaint();
+    }
+
+    // Di thread render: frame pertama mengisi riwayat, sesudahnya hanya kolom baru
+    private void prepareFrame() {
+        long now = System.currentTimeMillis();
+        if (!historyLoaded) {
+            historyLoaded = true;
+            HistoryStore history = repository.getHistory();
+            HistoryStore.Series[] histories = new HistoryStore.Series[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                histories[i] = history.query(symbols[i], now - HISTORY_SPAN_MS, now);
+            }
+            dataset.loadHistory(now - HISTORY_SPAN_MS, now, histories);
+        }
+        dataset.sample(now);
+        dataset.setTargetPoints(chartPanel.getRenderWidth());
+        dataset.publishChanges();
+    }
+
+    // Tick hanya memperbarui harga terakhir; kolom baru diambil per SAMPLE_MS
+    private void startLiveUpdates() {
+        priceSubscription = PriceBus.getInstance().subscribe(Arrays.asList(symbols), Runnable::run,
+                (tickSymbols, prices, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        Integer series = seriesBySymbol.get(tickSymbols[i]);
+                        if (series != null) {
+                            dataset.setLatest(series, prices[i]);
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public void dispose() {
+        chartPanel.dispose();
+        priceSubscription.close();
+        super.dispose();
+    }
+}
@@ -2,31 +2,46 @@ package dashboard;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.TableCellRenderer;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
-import java.util.Timer;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import components.CryptoTable;
+import components.CryptoTableModel;
 import models.Cryptocurrency;
-import services.FileHandler;
 import services.APIService;
+import services.CryptoRepository;
+import services.PollingPriceFeed;
+import services.PriceBus;
+import services.PriceFeed;
+import services.PriceFeedServer;
+import services.RefreshScheduler;
+import services.SearchIndex;
+import services.SocketPriceFeed;
 import components.SidebarPanel;
 import components.ModernButton;
 
 public class CryptoDashboard extends JFrame {
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final int MAX_COMPARE_SERIES = 200;
+
     private JTable cryptoTable;
-    private DefaultTableModel tableModel;
+    private CryptoTableModel tableModel;
     private JTextField searchField;
+    private javax.swing.Timer searchDebounce;
+    private final SearchIndex searchIndex = new SearchIndex();
     private JComboBox<String> sortComboBox;
-    private List<Cryptocurrency> cryptoList;
-    private Timer refreshTimer;
-    private FileHandler fileHandler;
+    private PriceBus priceBus;
+    private PriceBus.Subscription tickSubscription;
+    private CryptoRepository repository;
     private APIService apiService;
+    private volatile long shownStructureVersion = -1;
+    private final AtomicBoolean tableUpdateQueued = new AtomicBoolean(false);
 
     public CryptoDashboard() {
         setTitle("Crypto Dashboard - Real-time Visualization");
@@ -35,17 +50,43 @@ public class CryptoDashboard extends JFrame {
         setLocationRelativeTo(null);
 
         // Initialize services
-        fileHandler = new FileHandler();
+        repository = CryptoRepository.getInstance();
         apiService = new APIService();
 
         // Load initial data
-        cryptoList = fileHandler.loadCryptocurrencies();
+        CryptoRepository.Snapshot snapshot = repository.snapshot();
+        tableModel = new CryptoTableModel(snapshot);
+        searchIndex.sync(snapshot);
+        shownStructureVersion = snapshot.getStructureVersion();
+
+        // Perubahan daftar koin (CRUD dari window lain) diikuti lewat repository; tick harga
+        // datang lewat PriceBus. Perubahan beruntun digabung jadi satu update tabel per giliran EDT
+        repository.addChangeListener(changed -> {
+            if (changed.getStructureVersion() != shownStructureVersion
+                    && tableUpdateQueued.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    tableUpdateQueued.set(false);
+                    applySnapshot(repository.snapshot());
+                });
+            }
+        });
 
         // Setup UI
         setupUI();
 
         // Start real-time updates
         startRealTimeUpdates();
+
+        // Write pending changes before the JVM exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                tickSubscription.close();
+                priceBus.stop();
+                RefreshScheduler.getInstance().shutdown(2000);
+                repository.shutdown();
+            }
+        });
     }
 
     private void setupUI() {
@@ -100,11 +141,16 @@ public class CryptoDashboard extends JFrame {
                 BorderFactory.createLineBorder(new Color(70, 70, 80)),
                 BorderFactory.createEmptyBorder(5, 10, 5, 10)
         ));
-        searchField.addKeyListener(new KeyAdapter() {
+        // Ketikan beruntun digabung; pencarian jalan sekali setelah jeda SEARCH_DEBOUNCE_MS
+        searchDebounce = new javax.swing.Timer(SEARCH_DEBOUNCE_MS, e -> filterTable());
+        searchDebounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void keyReleased(KeyEvent e) {
-                filterTable();
-            }
+            public void insertUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchDebounce.restart(); }
         });
 
         // Sort combo box
@@ -132,15 +178,6 @@ public class CryptoDashboard extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(new Color(40, 40, 50));
 
-        // Table model
-        String[] columns = {"No", "Name", "Symbol", "Price (USD)", "24h Change", "Status", "Last Updated", "Actions"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 7; // Only actions column is editable
-            }
-        };
-
         cryptoTable = new CryptoTable(tableModel);
         cryptoTable.setBackground(new Color(40, 40, 50));
         cryptoTable.setForeground(new Color(220, 220, 220));
@@ -150,11 +187,8 @@ public class CryptoDashboard extends JFrame {
         cryptoTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
 
         // Add action buttons to table
-        cryptoTable.getColumnModel().getColumn(7).setCellRenderer(new ButtonRenderer());
-        cryptoTable.getColumnModel().getColumn(7).setCellEditor(new ButtonEditor(new JCheckBox()));
-
-        // Populate table
-        refreshTableData();
+        cryptoTable.getColumnModel().getColumn(CryptoTableModel.ACTIONS_COLUMN).setCellRenderer(new ButtonRenderer());
+        cryptoTable.getColumnModel().getColumn(CryptoTableModel.ACTIONS_COLUMN).setCellEditor(new ButtonEditor(new JCheckBox()));
 
         JScrollPane scrollPane = new JScrollPane(cryptoTable);
         scrollPane.getViewport().setBackground(new Color(40, 40, 50));
@@ -209,122 +243,85 @@ public class CryptoDashboard extends JFrame {
         return card;
     }
 
-    private void refreshTableData() {
-        tableModel.setRowCount(0);
-
-        for (int i = 0; i < cryptoList.size(); i++) {
-            Cryptocurrency crypto = cryptoList.get(i);
-            Object[] row = {
-                    i + 1,
-                    crypto.getName(),
-                    crypto.getSymbol(),
-                    crypto.getFormattedPrice(),
-                    crypto.getFormattedChange(),
-                    crypto.getStatus(),
-                    crypto.getLastUpdated().toString().substring(0, 19).replace("T", " "),
-                    "View Chart"
-            };
-            tableModel.addRow(row);
-        }
-    }
-
+    // Query diperlakukan sebagai teks biasa lewat SearchIndex, bukan regex
     private void filterTable() {
-        String query = searchField.getText().toLowerCase();
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
-        cryptoTable.setRowSorter(sorter);
-
-        if (query.length() == 0) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query));
-        }
+        tableModel.setFilter(searchIndex.search(searchField.getText()));
     }
 
+    // Urutan dijaga model secara live: tick berikutnya tidak mengacak urutan lagi
     private void sortTable() {
         String selected = (String) sortComboBox.getSelectedItem();
-        Comparator<Cryptocurrency> comparator = null;
 
         switch (selected) {
             case "Sort by Name":
-                comparator = Comparator.comparing(Cryptocurrency::getName);
+                tableModel.setSortKey(CryptoTableModel.SortKey.NAME);
                 break;
             case "Sort by Price":
-                comparator = Comparator.comparingDouble(Cryptocurrency::getCurrentPrice).reversed();
+                tableModel.setSortKey(CryptoTableModel.SortKey.PRICE);
                 break;
             case "Sort by Change":
-                comparator = Comparator.comparingDouble(Cryptocurrency::getPriceChangePercentage24h).reversed();
+                tableModel.setSortKey(CryptoTableModel.SortKey.CHANGE);
                 break;
         }
+    }
 
-        if (comparator != null) {
-            cryptoList.sort(comparator);
-            refreshTableData();
+    // Dipanggil di EDT saat daftar koin berubah
+    private void applySnapshot(CryptoRepository.Snapshot snapshot) {
+        shownStructureVersion = snapshot.getStructureVersion();
+        searchIndex.sync(snapshot);
+        tableModel.setSnapshot(snapshot);
+        if (searchField != null && !searchField.getText().trim().isEmpty()) {
+            // Koin baru yang cocok dengan query aktif ikut tampil
+            filterTable();
         }
     }
 
     public void refreshDashboardData() {
-        System.out.println("Refreshing dashboard data from file...");
-
-        // Reload data dari file
-        cryptoList = fileHandler.loadCryptocurrencies();
+        System.out.println("Refreshing dashboard data from repository...");
 
-        // Refresh tabel
-        refreshTableData();
+        // Ambil snapshot terbaru dari memori
+        applySnapshot(repository.snapshot());
 
         // Update UI
         revalidate();
         repaint();
 
-        System.out.println("Dashboard refreshed. Total cryptos: " + cryptoList.size());
+        System.out.println("Dashboard refreshed. Total cryptos: " + tableModel.getRowCount());
     }
 
     private void refreshData() {
-        // Simulate API call using our simplified APIService
-        new Thread(() -> {
-            try {
-                // Update prices using APIService simulation
-                for (Cryptocurrency crypto : cryptoList) {
-                    double newPrice = apiService.getCryptoPrice(crypto.getName());
-                    double oldPrice = crypto.getCurrentPrice();
-                    double change = ((newPrice - oldPrice) / oldPrice) * 100;
-
-                    crypto.setCurrentPrice(newPrice);
-                    crypto.setPriceChange24h(newPrice - oldPrice);
-                    crypto.setPriceChangePercentage24h(change);
-                }
-
-                // Save updated data
-                fileHandler.saveCryptocurrencies(cryptoList);
-
-                SwingUtilities.invokeLater(() -> {
-                    refreshTableData();
-                });
+        priceBus.requestRefresh();
+    }
 
-            } catch (Exception e) {
-                SwingUtilities.invokeLater(() -> {
-                    JOptionPane.showMessageDialog(this,
-                            "Error refreshing data: " + e.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                });
-            }
-        }).start();
+    // Feed harga dipilih lewat -Dcrypto.feed: "socket" (default, push dari feed server lokal)
+    // atau "poll" (APIService dipanggil tiap 10 detik di dalam proses). Bila port feed
+    // dipakai proses lain yang bukan feed harga, kembali ke polling.
+    private PriceFeed createPriceFeed() {
+        if ("poll".equals(System.getProperty("crypto.feed"))) {
+            return new PollingPriceFeed(apiService, 10000);
+        }
+        int port = Integer.getInteger("crypto.feed.port", PriceFeedServer.DEFAULT_PORT);
+        if (!PriceFeedServer.startLocalIfAbsent(port)) {
+            System.out.println("Falling back to polling price feed");
+            return new PollingPriceFeed(apiService, 10000);
+        }
+        return new SocketPriceFeed("localhost", port);
     }
 
+    // Feed dimiliki PriceBus; tabel hanyalah salah satu subscriber-nya (semua simbol).
+    // Simbol yang dikirim bus menentukan baris mana yang dilukis ulang
     private void startRealTimeUpdates() {
-        refreshTimer = new Timer();
-        refreshTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                refreshData();
-            }
-        }, 0, 10000); // Update every 10 seconds
+        priceBus = PriceBus.getInstance();
+        priceBus.start(createPriceFeed());
+        tickSubscription = priceBus.subscribe(null, SwingUtilities::invokeLater,
+                (symbols, prices, count) -> tableModel.updatePrices(repository.snapshot(), symbols, count));
     }
 
     // Navigation methods
     public void showDetailChart() {
         int selectedRow = cryptoTable.getSelectedRow();
         if (selectedRow >= 0) {
-            String cryptoName = (String) tableModel.getValueAt(selectedRow, 1);
+            String cryptoName = tableModel.getCryptoAt(cryptoTable.convertRowIndexToModel(selectedRow)).getName();
             DetailChartFrame detailFrame = new DetailChartFrame(cryptoName);
             detailFrame.setVisible(true);
         } else {
@@ -333,6 +330,29 @@ public class CryptoDashboard extends JFrame {
         }
     }
 
+    // Baris terpilih (minimal 2) atau koin teratas di tabel, paling banyak MAX_COMPARE_SERIES
+    public void showComparison() {
+        int[] selectedRows = cryptoTable.getSelectedRows();
+        List<String> symbols = new ArrayList<>();
+        if (selectedRows.length >= 2) {
+            for (int row : selectedRows) {
+                symbols.add(tableModel.getCryptoAt(cryptoTable.convertRowIndexToModel(row)).getSymbol());
+            }
+        } else {
+            for (int row = 0; row < tableModel.getRowCount() && symbols.size() < MAX_COMPARE_SERIES; row++) {
+                symbols.add(tableModel.getCryptoAt(row).getSymbol());
+            }
+        }
+        if (symbols.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No cryptocurrencies to compare.",
+                    "No Data", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        // Simbol yang sama bisa muncul di beberapa baris; satu seri per simbol
+        ComparisonChartFrame compareFrame = new ComparisonChartFrame(new ArrayList<>(new LinkedHashSet<>(symbols)));
+        compareFrame.setVisible(true);
+    }
+
     public void showDataInput() {
         DataInputFrame inputFrame = new DataInputFrame(this);
         inputFrame.setVisible(true);
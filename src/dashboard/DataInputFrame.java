@@ -7,17 +7,20 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import models.Cryptocurrency;
-import services.FileHandler;
 import services.APIService;
+import services.CryptoRepository;
 
 public class DataInputFrame extends JFrame {
     private JTextField nameField, symbolField, categoryField;
     private JTable dataTable;
     private DefaultTableModel tableModel;
     private List<Cryptocurrency> cryptoList;
-    private FileHandler fileHandler;
+    private CryptoRepository repository;
+    private CryptoRepository.ChangeListener repositoryListener;
     private CryptoDashboard parent;
     private JButton addBtn, updateBtn, deleteBtn, clearBtn;
     private int editingIndex = -1;
@@ -26,14 +29,22 @@ public class DataInputFrame extends JFrame {
 
     public DataInputFrame(CryptoDashboard parent) {
         this.parent = parent;
-        this.fileHandler = new FileHandler();
+        this.repository = CryptoRepository.getInstance();
         this.apiService = new APIService();
 
         System.out.println("\n=== DATA INPUT FRAME INITIALIZED ===");
 
-        // Load data dari file
-        this.cryptoList = fileHandler.loadCryptocurrencies();
-        System.out.println("Loaded " + cryptoList.size() + " cryptocurrencies from file");
+        // Data diambil dari repository bersama, bukan dari file
+        this.cryptoList = new ArrayList<>(repository.snapshot().getCryptos());
+        System.out.println("Loaded " + cryptoList.size() + " cryptocurrencies from repository");
+
+        // Ikuti perubahan dari window lain, kecuali saat sedang mengedit
+        repositoryListener = snapshot -> SwingUtilities.invokeLater(() -> {
+            if (editingIndex < 0 && isDisplayable()) {
+                refreshTable();
+            }
+        });
+        repository.addChangeListener(repositoryListener);
 
         setTitle("Manage Cryptocurrencies - CRUD");
         setSize(1000, 700);
@@ -377,8 +388,8 @@ public class DataInputFrame extends JFrame {
     private void refreshTable() {
         System.out.println("\n=== REFRESHING TABLE ===");
 
-        // Reload data from file
-        cryptoList = fileHandler.loadCryptocurrencies();
+        // Ambil snapshot terbaru dari repository
+        cryptoList = new ArrayList<>(repository.snapshot().getCryptos());
         System.out.println("Reloaded " + cryptoList.size() + " cryptocurrencies");
 
         tableModel.setRowCount(0);
@@ -494,55 +505,28 @@ public class DataInputFrame extends JFrame {
 
         System.out.println("Creating: " + name + " (" + symbol + ") - Price: $" + initialPrice);
 
-        // Add to list
-        cryptoList.add(newCrypto);
-        System.out.println("Added to list. New size: " + cryptoList.size());
-
-        // Save to file
-        boolean saved = fileHandler.saveCryptocurrencies(cryptoList);
-
-        if (saved) {
-            System.out.println("✓ SAVE SUCCESSFUL!");
-
-            // Refresh table
-            refreshTable();
-            clearForm();
+        // Add to repository, file is written in the background
+        CompletableFuture<Boolean> saved = repository.add(newCrypto);
+        watchSave(saved, "add " + symbol);
 
-            // Refresh parent dashboard
-            if (parent != null) {
-                parent.refreshDashboardData();
-                System.out.println("✓ Dashboard refreshed");
-            }
-
-            // Show success message
-            JOptionPane.showMessageDialog(this,
-                    " CRYPTOCURRENCY ADDED SUCCESSFULLY!\n\n" +
-                            "Name: " + name + "\n" +
-                            "Symbol: " + symbol + "\n" +
-                            "Category: " + category + "\n" +
-                            "Initial Price: " + newCrypto.getFormattedPrice() + "\n" +
-                            "24h Change: " + newCrypto.getFormattedChange() + "\n\n" +
-                            "Total cryptocurrencies: " + cryptoList.size(),
-                    "Success",
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            updateStatus("Added: " + name + " (" + symbol + ")");
-
-        } else {
-            System.err.println("✗ SAVE FAILED!");
-
-            // Remove from list if save failed
-            cryptoList.remove(newCrypto);
-
-            JOptionPane.showMessageDialog(this,
-                    " FAILED TO SAVE CRYPTOCURRENCY!\n\n" +
-                            "Could not write to data file.\n" +
-                            "Check console for error details.",
-                    "Save Error",
-                    JOptionPane.ERROR_MESSAGE);
-
-            updateStatus("Save failed: Check file permissions");
-        }
+        // Refresh table
+        refreshTable();
+        clearForm();
+        System.out.println("Added to repository. New size: " + cryptoList.size());
+
+        // Show success message
+        JOptionPane.showMessageDialog(this,
+                " CRYPTOCURRENCY ADDED SUCCESSFULLY!\n\n" +
+                        "Name: " + name + "\n" +
+                        "Symbol: " + symbol + "\n" +
+                        "Category: " + category + "\n" +
+                        "Initial Price: " + newCrypto.getFormattedPrice() + "\n" +
+                        "24h Change: " + newCrypto.getFormattedChange() + "\n\n" +
+                        "Total cryptocurrencies: " + cryptoList.size(),
+                "Success",
+                JOptionPane.INFORMATION_MESSAGE);
+
+        updateStatus("Added: " + name + " (" + symbol + ")");
     }
 
     private void updateCrypto() {
@@ -599,57 +583,27 @@ public class DataInputFrame extends JFrame {
             String oldName = crypto.getName();
             String oldSymbol = crypto.getSymbol();
 
-            // Update crypto data
-            crypto.setName(name);
-            crypto.setSymbol(symbol);
-            crypto.setCategory(category);
+            // Update crypto data in the repository
+            CompletableFuture<Boolean> saved = repository.update(crypto.getId(), name, symbol, category);
+            watchSave(saved, "update " + symbol);
 
             System.out.println("Updated: " + oldName + " -> " + name + ", " + oldSymbol + " -> " + symbol);
 
-            // Save to file
-            boolean saved = fileHandler.saveCryptocurrencies(cryptoList);
-
-            if (saved) {
-                System.out.println("✓ UPDATE SAVED SUCCESSFULLY!");
-
-                // Refresh table
-                refreshTable();
-                clearForm();
-
-                // Refresh parent dashboard
-                if (parent != null) {
-                    parent.refreshDashboardData();
-                    System.out.println("✓ Dashboard refreshed");
-                }
-
-                // Show success message
-                JOptionPane.showMessageDialog(this,
-                        "CRYPTOCURRENCY UPDATED SUCCESSFULLY!\n\n" +
-                                "Old: " + oldName + " (" + oldSymbol + ")\n" +
-                                "New: " + name + " (" + symbol + ")\n" +
-                                "Category: " + category + "\n" +
-                                "Price: " + crypto.getFormattedPrice(),
-                        "Update Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-
-                updateStatus("Updated: " + name + " (" + symbol + ")");
-
-            } else {
-                System.err.println("✗ UPDATE SAVE FAILED!");
-
-                // Revert changes if save failed
-                crypto.setName(oldName);
-                crypto.setSymbol(oldSymbol);
+            // Refresh table
+            clearForm();
+            refreshTable();
 
-                JOptionPane.showMessageDialog(this,
-                        "FAILED TO SAVE CHANGES!\n\n" +
-                                "Could not write to data file.\n" +
-                                "Original data restored.",
-                        "Save Error",
-                        JOptionPane.ERROR_MESSAGE);
+            // Show success message
+            JOptionPane.showMessageDialog(this,
+                    "CRYPTOCURRENCY UPDATED SUCCESSFULLY!\n\n" +
+                            "Old: " + oldName + " (" + oldSymbol + ")\n" +
+                            "New: " + name + " (" + symbol + ")\n" +
+                            "Category: " + category + "\n" +
+                            "Price: " + crypto.getFormattedPrice(),
+                    "Update Success",
+                    JOptionPane.INFORMATION_MESSAGE);
 
-                updateStatus("Update failed: Could not save");
-            }
+            updateStatus("Updated: " + name + " (" + symbol + ")");
 
         } catch (Exception e) {
             System.err.println("✗ ERROR updating: " + e.getMessage());
@@ -696,50 +650,23 @@ public class DataInputFrame extends JFrame {
 
         if (confirm == JOptionPane.YES_OPTION) {
             try {
-                // Remove from list
-                cryptoList.remove(editingIndex);
-                System.out.println("Removed from list. New size: " + cryptoList.size());
-
-                // Save to file
-                boolean saved = fileHandler.saveCryptocurrencies(cryptoList);
-
-                if (saved) {
-                    System.out.println("✓ DELETE SAVED SUCCESSFULLY!");
-
-                    // Refresh table
-                    refreshTable();
-                    clearForm();
-
-                    // Refresh parent dashboard
-                    if (parent != null) {
-                        parent.refreshDashboardData();
-                        System.out.println("✓ Dashboard refreshed");
-                    }
-
-                    JOptionPane.showMessageDialog(this,
-                            "CRYPTOCURRENCY DELETED SUCCESSFULLY!\n\n" +
-                                    "Deleted: " + cryptoToDelete.getName() + " (" + cryptoToDelete.getSymbol() + ")\n" +
-                                    "Remaining: " + cryptoList.size() + " cryptocurrencies",
-                            "Delete Success",
-                            JOptionPane.INFORMATION_MESSAGE);
+                // Remove from repository
+                CompletableFuture<Boolean> saved = repository.remove(cryptoToDelete.getId());
+                watchSave(saved, "delete " + cryptoToDelete.getSymbol());
 
-                    updateStatus("Deleted: " + cryptoToDelete.getName() + " (" + cryptoToDelete.getSymbol() + ")");
-
-                } else {
-                    System.err.println("✗ DELETE SAVE FAILED!");
-
-                    // Restore to list if save failed
-                    cryptoList.add(editingIndex, cryptoToDelete);
+                // Refresh table
+                clearForm();
+                refreshTable();
+                System.out.println("Removed from repository. New size: " + cryptoList.size());
 
-                    JOptionPane.showMessageDialog(this,
-                            "FAILED TO DELETE FROM FILE!\n\n" +
-                                    "Could not write to data file.\n" +
-                                    "Cryptocurrency restored to list.",
-                            "Delete Error",
-                            JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this,
+                        "CRYPTOCURRENCY DELETED SUCCESSFULLY!\n\n" +
+                                "Deleted: " + cryptoToDelete.getName() + " (" + cryptoToDelete.getSymbol() + ")\n" +
+                                "Remaining: " + cryptoList.size() + " cryptocurrencies",
+                        "Delete Success",
+                        JOptionPane.INFORMATION_MESSAGE);
 
-                    updateStatus("Delete failed: Could not save");
-                }
+                updateStatus("Deleted: " + cryptoToDelete.getName() + " (" + cryptoToDelete.getSymbol() + ")");
 
             } catch (Exception e) {
                 System.err.println("✗ ERROR deleting: " + e.getMessage());
@@ -784,8 +711,32 @@ public class DataInputFrame extends JFrame {
         }
     }
 
+    // Tampilkan error jika penulisan di background gagal; data di memori tetap dipakai
+    private void watchSave(CompletableFuture<Boolean> saved, String action) {
+        saved.thenAccept(ok -> {
+            if (!ok) {
+                System.err.println("✗ SAVE FAILED: " + action);
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(this,
+                            "FAILED TO SAVE CHANGES!\n\n" +
+                                    "Could not write to data file (" + action + ").\n" +
+                                    "Changes are kept in memory and will be written on the next save.",
+                            "Save Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    updateStatus("Save failed: Check file permissions");
+                });
+            }
+        });
+    }
+
     // Public method untuk refresh dari external
     public void refreshData() {
         refreshTable();
     }
+
+    @Override
+    public void dispose() {
+        repository.removeChangeListener(repositoryListener);
+        super.dispose();
+    }
 }
\ No newline at end of file
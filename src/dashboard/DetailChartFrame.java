@@ -3,21 +3,62 @@ package dashboard;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.util.Random;
+import java.util.Collections;
+import java.util.Date;
+import components.AsyncChartPanel;
+import components.RingBufferXYDataset;
+import models.Cryptocurrency;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.XYPlot;
-import org.jfree.data.time.*;
+import org.jfree.chart.renderer.xy.CandlestickRenderer;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.DefaultHighLowDataset;
+import org.jfree.data.xy.OHLCDataset;
+import org.jfree.data.xy.XYDataset;
+import services.HistoryStore;
+import services.CryptoRepository;
+import services.OhlcRollups;
+import services.PriceBus;
+import services.OhlcRollups.Candles;
+import services.OhlcRollups.Timeframe;
+import services.RefreshScheduler;
 
 public class DetailChartFrame extends JFrame {
+    private static final long CHART_REFRESH_MS = 1000;
+    // Chart garis: tick mentah di ring buffer, dilukis ulang paling cepat ~30 fps
+    private static final int FRAME_MS = 33;
+    // Batas atas; ring buffer mulai kecil dan baru tumbuh ke sini bila tick-nya memang banyak
+    private static final int TICK_CAPACITY = 2_000_000;
+    private static final long HISTORY_SPAN_MS = 3L * 24 * 60 * 60 * 1000;
+    private static final int LINE_WINDOW_CANDLES = 120;
+
     private JFreeChart chart;
-    private ChartPanel chartPanel;
+    private AsyncChartPanel chartPanel;
     private JComboBox<String> timeframeCombo;
-    private Timer refreshTimer;
+    private JComboBox<String> chartTypeCombo;
+    private JLabel[] statValues;
     private String cryptoName;
+    private String symbol;
+
+    private final CryptoRepository repository;
+    private PriceBus.Subscription priceSubscription;
+    private RefreshScheduler.Task chartRefresh;
+    private volatile Timeframe selectedTimeframe = Timeframe.MINUTE_1;
+    private volatile boolean candlestickSelected = false;
+    private volatile boolean chartDirty = true;
+
+    private final RingBufferXYDataset tickDataset;
+    private JFreeChart lineChart;
+    // Dibangun sekali; refresh hanya mengganti dataset candle lewat chartPanel.update()
+    private JFreeChart candleChart;
+    private volatile boolean historyLoaded = false;
 
     public DetailChartFrame(String cryptoName) {
         this.cryptoName = cryptoName;
+        this.repository = CryptoRepository.getInstance();
+        this.symbol = findSymbol(cryptoName);
+        this.tickDataset = new RingBufferXYDataset(cryptoName + " Price", TICK_CAPACITY);
+        tickDataset.setWindowMillis(selectedTimeframe.getMillis() * LINE_WINDOW_CANDLES);
         setTitle(cryptoName + " - Price Chart");
         setSize(900, 600);
         setLocationRelativeTo(null);
@@ -45,11 +86,19 @@ public class DetailChartFrame extends JFrame {
         JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         controlsPanel.setBackground(new Color(40, 40, 50));
 
-        timeframeCombo = new JComboBox<>(new String[]{"1 Minute", "5 Minutes", "15 Minutes", "1 Hour", "1 Day"});
+        timeframeCombo = new JComboBox<>();
+        for (Timeframe timeframe : Timeframe.values()) {
+            timeframeCombo.addItem(timeframe.getLabel());
+        }
         timeframeCombo.setBackground(new Color(50, 50, 60));
         timeframeCombo.setForeground(Color.black);
         timeframeCombo.addActionListener(e -> updateChart());
 
+        chartTypeCombo = new JComboBox<>(new String[]{"Line", "Candlestick"});
+        chartTypeCombo.setBackground(new Color(50, 50, 60));
+        chartTypeCombo.setForeground(Color.black);
+        chartTypeCombo.addActionListener(e -> updateChart());
+
         JButton exportBtn = new JButton("Export Data");
         exportBtn.setBackground(new Color(70, 130, 180));
         exportBtn.setForeground(Color.black);
@@ -57,16 +106,22 @@ public class DetailChartFrame extends JFrame {
 
         controlsPanel.add(new JLabel("Timeframe:"));
         controlsPanel.add(timeframeCombo);
+        controlsPanel.add(new JLabel("Chart:"));
+        controlsPanel.add(chartTypeCombo);
         controlsPanel.add(Box.createHorizontalStrut(20));
         controlsPanel.add(exportBtn);
 
         headerPanel.add(titleLabel, BorderLayout.WEST);
         headerPanel.add(controlsPanel, BorderLayout.EAST);
 
-        // Create initial chart
-        chart = createChart();
-        chartPanel = new ChartPanel(chart);
+        // Chart garis langsung memakai ring buffer tick; riwayat dimuat di background
+        lineChart = createChart(tickDataset, false);
+        candleChart = createChart(createDataset(null), true);
+        chart = lineChart;
+        // Chart dirender di luar EDT, paling cepat satu frame per FRAME_MS
+        chartPanel = new AsyncChartPanel("chart-" + symbol, chart, FRAME_MS);
         chartPanel.setBackground(new Color(40, 40, 50));
+        chartPanel.setBeforeRender(this::publishFrame);
 
         // Stats panel
         JPanel statsPanel = createStatsPanel();
@@ -78,32 +133,28 @@ public class DetailChartFrame extends JFrame {
         add(mainPanel);
     }
 
-    private JFreeChart createChart() {
-        TimeSeries series = new TimeSeries(cryptoName + " Price");
-        Random random = new Random();
-
-        // Generate sample data for the last 24 hours
-        Second current = new Second();
-        for (int i = 0; i < 100; i++) {
-            Second time = (Second) current.previous();
-            double price = 30000 + random.nextGaussian() * 1000;
-            series.add(time, price);
-            current = time;
+    private JFreeChart createChart(XYDataset dataset, boolean candlestick) {
+        JFreeChart chart;
+        if (candlestick) {
+            chart = ChartFactory.createCandlestickChart(
+                    cryptoName + " Price Movement",
+                    "Time",
+                    "Price (USD)",
+                    (OHLCDataset) dataset,
+                    false
+            );
+        } else {
+            chart = ChartFactory.createTimeSeriesChart(
+                    cryptoName + " Price Movement",
+                    "Time",
+                    "Price (USD)",
+                    dataset,
+                    true,
+                    true,
+                    false
+            );
         }
 
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
-        dataset.addSeries(series);
-
-        JFreeChart chart = ChartFactory.createTimeSeriesChart(
-                cryptoName + " Price Movement",
-                "Time",
-                "Price (USD)",
-                dataset,
-                true,
-                true,
-                false
-        );
-
         // Apply dark theme
         chart.setBackgroundPaint(new Color(40, 40, 50));
         chart.getTitle().setPaint(new Color(220, 220, 220));
@@ -120,14 +171,47 @@ public class DetailChartFrame extends JFrame {
         plot.getRangeAxis().setTickLabelPaint(new Color(180, 180, 180));
 
         // Customize renderer
-        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
-        renderer.setSeriesPaint(0, new Color(70, 130, 180));
-        renderer.setSeriesShapesVisible(0, false);
-        plot.setRenderer(renderer);
+        if (candlestick) {
+            CandlestickRenderer renderer = new CandlestickRenderer();
+            renderer.setUpPaint(new Color(50, 205, 50));
+            renderer.setDownPaint(new Color(220, 20, 60));
+            renderer.setSeriesPaint(0, new Color(180, 180, 180));
+            renderer.setVolumePaint(new Color(70, 70, 85));
+            plot.setRenderer(renderer);
+        } else {
+            XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
+            renderer.setSeriesPaint(0, new Color(70, 130, 180));
+            renderer.setSeriesShapesVisible(0, false);
+            // Ribuan segmen per frame: satu path tanpa antialias kira-kira 2x lebih cepat dilukis
+            renderer.setDrawSeriesLineAsPath(true);
+            chart.setAntiAlias(false);
+            plot.setRenderer(renderer);
+        }
 
         return chart;
     }
 
+    // candles null = dataset kosong untuk chart candle awal
+    private OHLCDataset createDataset(Candles candles) {
+        int n = candles == null ? 0 : candles.size();
+        Date[] dates = new Date[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] open = new double[n];
+        double[] close = new double[n];
+        double[] volume = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            dates[i] = new Date(candles.getTime(i));
+            high[i] = candles.getHigh(i);
+            low[i] = candles.getLow(i);
+            open[i] = candles.getOpen(i);
+            close[i] = candles.getClose(i);
+            volume[i] = candles.getVolume(i);
+        }
+        return new DefaultHighLowDataset(cryptoName + " Price", dates, high, low, open, close, volume);
+    }
+
     private JPanel createStatsPanel() {
         JPanel panel = new JPanel(new GridLayout(1, 4, 10, 0));
         panel.setBackground(new Color(40, 40, 50));
@@ -135,7 +219,7 @@ public class DetailChartFrame extends JFrame {
 
         // Create stat cards
         String[] labels = {"Current Price", "24h High", "24h Low", "24h Volume"};
-        String[] values = {"$32,456.78", "$33,123.45", "$31,890.12", "$1.2B"};
+        statValues = new JLabel[labels.length];
         Color[] colors = {
                 new Color(50, 205, 50),  // Green
                 new Color(255, 140, 0),  // Orange
@@ -152,7 +236,8 @@ public class DetailChartFrame extends JFrame {
             label.setForeground(new Color(180, 180, 180));
             label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
 
-            JLabel value = new JLabel(values[i]);
+            JLabel value = new JLabel("-");
+            statValues[i] = value;
             value.setForeground(colors[i]);
             value.setFont(new Font("Segoe UI", Font.BOLD, 16));
 
@@ -165,9 +250,93 @@ public class DetailChartFrame extends JFrame {
         return panel;
     }
 
+    // Dipanggil di EDT saat timeframe atau jenis chart diganti
     private void updateChart() {
-        // In a real application, this would fetch new data based on selected timeframe
-        chartPanel.setChart(createChart());
+        selectedTimeframe = Timeframe.fromLabel((String) timeframeCombo.getSelectedItem());
+        candlestickSelected = "Candlestick".equals(chartTypeCombo.getSelectedItem());
+        tickDataset.setWindowMillis(selectedTimeframe.getMillis() * LINE_WINDOW_CANDLES);
+        JFreeChart selected = candlestickSelected ? candleChart : lineChart;
+        if (chart != selected) {
+            chart = selected;
+            chartPanel.setChart(chart);
+        }
+        chartDirty = true;
+        if (chartRefresh != null) {
+            chartRefresh.requestNow();
+        }
+    }
+
+    // Baca candle timeframe terpilih dari rollup di thread scheduler (pembacaan pertama
+    // bisa backfill dari disk). Tidak ada chart yang dibangun ulang: ring buffer chart garis
+    // diisi riwayat sekali lalu hanya menerima tick, chart candle hanya diganti datasetnya
+    // di thread render.
+    private void loadChart() {
+        if (!historyLoaded) {
+            historyLoaded = true;
+            long now = System.currentTimeMillis();
+            HistoryStore.Series history = repository.getHistory().query(symbol, now - HISTORY_SPAN_MS, now);
+            tickDataset.load(history);
+        }
+        if (!chartDirty) {
+            return;
+        }
+        chartDirty = false;
+
+        OhlcRollups rollups = repository.getRollups();
+        boolean candlestick = candlestickSelected;
+        Candles candles = candlestick ? rollups.getCandles(symbol, selectedTimeframe) : null;
+        Candles hourly = rollups.getCandles(symbol, Timeframe.HOUR_1);
+
+        if (candlestick) {
+            OHLCDataset dataset = createDataset(candles);
+            chartPanel.update(() -> candleChart.getXYPlot().setDataset(dataset));
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!isDisplayable()) {
+                return;
+            }
+            updateStats(hourly);
+        });
+    }
+
+    // Di thread render: satu event dataset per frame untuk semua tick sejak frame sebelumnya
+    private void publishFrame() {
+        if (candlestickSelected) {
+            return;
+        }
+        tickDataset.setTargetPoints(chartPanel.getRenderWidth());
+        tickDataset.publishChanges();
+    }
+
+    // Statistik 24 jam dari 24 candle 1 jam terakhir
+    private void updateStats(Candles hourly) {
+        int n = hourly.size();
+        if (n == 0) {
+            return;
+        }
+        long since = System.currentTimeMillis() - 24L * 60 * 60 * 1000;
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        long ticks = 0;
+        for (int i = n - 1; i >= 0 && hourly.getTime(i) >= since - Timeframe.HOUR_1.getMillis(); i--) {
+            high = Math.max(high, hourly.getHigh(i));
+            low = Math.min(low, hourly.getLow(i));
+            ticks += hourly.getVolume(i);
+        }
+
+        statValues[0].setText(String.format("$%,.2f", hourly.getClose(n - 1)));
+        statValues[1].setText(ticks > 0 ? String.format("$%,.2f", high) : "-");
+        statValues[2].setText(ticks > 0 ? String.format("$%,.2f", low) : "-");
+        statValues[3].setText(String.format("%,d ticks", ticks));
+    }
+
+    private String findSymbol(String name) {
+        for (Cryptocurrency crypto : repository.snapshot().getCryptos()) {
+            if (crypto.getName().equals(name)) {
+                return crypto.getSymbol();
+            }
+        }
+        return name;
     }
 
     private void exportData() {
@@ -186,32 +355,27 @@ public class DetailChartFrame extends JFrame {
         }
     }
 
+    // Rollup sudah diperbarui repository setiap tick; chart cukup membaca ulang. Hanya tick
+    // simbol ini yang menandai chart kotor, pembacaan ulang mengikuti cadence refresh chart
     private void startRealTimeChartUpdates() {
-        refreshTimer = new Timer(5000, e -> {
-            // Update chart with new data point
-            TimeSeries series = ((TimeSeriesCollection) chart.getXYPlot().getDataset()).getSeries(0);
-            Second latestTime = (Second) series.getTimePeriod(series.getItemCount() - 1);
-            Second newTime = (Second) latestTime.next();
-
-            Random random = new Random();
-            double lastPrice = series.getValue(series.getItemCount() - 1).doubleValue();
-            double newPrice = lastPrice * (1 + (random.nextGaussian() * 0.01)); // 1% change
-
-            series.add(newTime, newPrice);
-
-            // Remove old data points to keep chart manageable
-            if (series.getItemCount() > 100) {
-                series.delete(0, 0);
-            }
-        });
-        refreshTimer.start();
+        priceSubscription = PriceBus.getInstance().subscribe(Collections.singleton(symbol), Runnable::run,
+                (symbols, prices, count) -> {
+                    long now = System.currentTimeMillis();
+                    for (int i = 0; i < count; i++) {
+                        tickDataset.append(now, prices[i]);
+                    }
+                    chartDirty = true;
+                });
+        chartRefresh = RefreshScheduler.getInstance().schedule("chart-" + symbol, CHART_REFRESH_MS, this::loadChart);
     }
 
     @Override
     public void dispose() {
-        if (refreshTimer != null) {
-            refreshTimer.stop();
+        if (chartRefresh != null) {
+            chartRefresh.cancel();
         }
+        chartPanel.dispose();
+        priceSubscription.close();
         super.dispose();
     }
 }
\ No newline at end of file
@@ -3,30 +3,58 @@ package dashboard;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.List;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.PiePlot;
 import org.jfree.data.general.DefaultPieDataset;
-import models.Cryptocurrency;
-import services.FileHandler;
+import components.AsyncChartPanel;
+import components.CoinReportTableModel;
+import components.HeatmapPanel;
+import services.CryptoRepository;
+import services.PriceBus;
+import services.RefreshScheduler;
+import services.TopKTracker;
 
 public class ReportFrame extends JFrame {
+    private static final long REPORT_REFRESH_MS = 2000;
+    private static final long CHART_FRAME_MS = 100;
+    private static final int TOP_COUNT = 5;
+
     private JTable historyTable;
-    private DefaultTableModel tableModel;
+    private CoinReportTableModel tableModel;
     private JTextArea summaryArea;
-    private FileHandler fileHandler;
-    private List<Cryptocurrency> cryptoList;
+    private CryptoRepository repository;
     private JButton refreshBtn;
-    private ChartPanel pieChartPanel;
+    private AsyncChartPanel pieChartPanel;
+    private HeatmapPanel heatmapPanel;
+    private PriceBus.Subscription edtSubscription;
+    private JFreeChart pieChart;
+    private PriceBus.Subscription priceSubscription;
+    private RefreshScheduler.Task reportRefresh;
+    private volatile boolean reportDirty = false;
+
+    // Peringkat streaming: diperbarui dari thread feed per tick, dibaca di EDT saat
+    // report dibangun. Dijaga moversLock; nomor baris mengikuti trackedSnapshot.
+    private final Object moversLock = new Object();
+    private final TopKTracker topGainers = new TopKTracker(TOP_COUNT, true);
+    private final TopKTracker topLosers = new TopKTracker(TOP_COUNT, false);
+    private final TopKTracker topPrices = new TopKTracker(TOP_COUNT, true);
+    private CryptoRepository.Snapshot trackedSnapshot;
+
+    // Hasil peringkat untuk satu kali render report (EDT)
+    private CryptoRepository.Snapshot reportSnapshot;
+    private final int[] gainerRows = new int[TOP_COUNT];
+    private final int[] loserRows = new int[TOP_COUNT];
+    private final int[] priceRows = new int[TOP_COUNT];
+    private int gainerCount;
+    private int loserCount;
+    private int priceCount;
+    private double priceSum;
 
     public ReportFrame() {
-        this.fileHandler = new FileHandler();
-        this.cryptoList = fileHandler.loadCryptocurrencies();
+        this.repository = CryptoRepository.getInstance();
 
         setTitle("Cryptocurrency Report & History");
         setSize(1100, 700);
@@ -35,6 +63,51 @@ public class ReportFrame extends JFrame {
 
         initUI();
         loadReportData();
+        startLiveUpdates();
+    }
+
+    // Tick dari PriceBus hanya menandai report kotor; ringkasan dan pie dihitung ulang paling
+    // sering sekali per REPORT_REFRESH_MS. Tabel "All Coins" tidak ikut dibangun ulang.
+    private void startLiveUpdates() {
+        priceSubscription = PriceBus.getInstance().subscribe(null, Runnable::run, (symbols, prices, count) -> {
+            trackMovers(repository.snapshot(), symbols, count);
+            reportDirty = true;
+        });
+        // Heatmap dan tabel diperbarui per tick di EDT (tiap batch dari bus): hanya tile yang
+        // berganti warna dan baris yang simbolnya berubah
+        edtSubscription = PriceBus.getInstance().subscribe(null, SwingUtilities::invokeLater,
+                (symbols, prices, count) -> {
+                    CryptoRepository.Snapshot snapshot = repository.snapshot();
+                    heatmapPanel.updatePercents(snapshot, symbols, count);
+                    tableModel.updatePrices(snapshot, symbols, count);
+                });
+        reportRefresh = RefreshScheduler.getInstance().schedule("report", REPORT_REFRESH_MS, () -> {
+            if (reportDirty) {
+                reportDirty = false;
+                SwingUtilities.invokeLater(() -> {
+                    if (isDisplayable()) {
+                        loadReportData();
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        if (reportRefresh != null) {
+            reportRefresh.cancel();
+        }
+        if (priceSubscription != null) {
+            priceSubscription.close();
+        }
+        if (edtSubscription != null) {
+            edtSubscription.close();
+        }
+        if (pieChartPanel != null) {
+            pieChartPanel.dispose();
+        }
+        super.dispose();
     }
 
     private void initUI() {
@@ -147,14 +220,8 @@ public class ReportFrame extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(new Color(40, 40, 50));
 
-        // Table - TAMPILKAN SEMUA COIN
-        String[] columns = {"No", "Name", "Symbol", "Price (USD)", "24h Change", "Category", "Last Updated"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Table - TAMPILKAN SEMUA COIN, langsung dari snapshot repository
+        tableModel = new CoinReportTableModel(repository.snapshot());
 
         historyTable = new JTable(tableModel);
         historyTable.setBackground(new Color(40, 40, 50));
@@ -175,11 +242,29 @@ public class ReportFrame extends JFrame {
                 new Color(220, 220, 220)
         ));
 
-        panel.add(scrollPane, BorderLayout.CENTER);
+        // Heatmap seluruh koin di tab kedua
+        heatmapPanel = new HeatmapPanel(repository.snapshot());
+        JPanel heatmapContainer = new JPanel(new BorderLayout());
+        heatmapContainer.setBackground(new Color(40, 40, 50));
+        heatmapContainer.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(70, 70, 80)),
+                "Market Heatmap (24h Change)",
+                TitledBorder.LEFT,
+                TitledBorder.TOP,
+                new Font("Segoe UI", Font.BOLD, 14),
+                new Color(220, 220, 220)
+        ));
+        heatmapContainer.add(heatmapPanel, BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("All Coins", scrollPane);
+        tabs.addTab("Heatmap", heatmapContainer);
+
+        panel.add(tabs, BorderLayout.CENTER);
         return panel;
     }
 
-    private ChartPanel createPieChart() {
+    private AsyncChartPanel createPieChart() {
         DefaultPieDataset dataset = new DefaultPieDataset();
 
         // Add initial data
@@ -206,20 +291,71 @@ public class ReportFrame extends JFrame {
         // Set colors for each slice
         plot.setSectionPaint("Loading...", new Color(128, 128, 128));
 
-        ChartPanel chartPanel = new ChartPanel(chart);
+        // Dirender di luar EDT; perubahan dataset digabung per frame
+        pieChart = chart;
+        AsyncChartPanel chartPanel = new AsyncChartPanel("report-pie", chart, CHART_FRAME_MS);
         chartPanel.setBackground(new Color(40, 40, 50));
 
         return chartPanel;
     }
 
+    // Perbarui peringkat untuk simbol batch dari bus; daftar koin baru memicu reset penuh.
+    // Batch tidak pernah dibuang: bila snapshot yang dibaca callback lebih lama dari
+    // trackedSnapshot, nilai simbol batch dibaca dari trackedSnapshot (yang terbaru).
+    private void trackMovers(CryptoRepository.Snapshot snapshot, String[] symbols, int count) {
+        synchronized (moversLock) {
+            if (trackedSnapshot != null && snapshot.getVersion() < trackedSnapshot.getVersion()) {
+                snapshot = trackedSnapshot;
+            }
+            if (trackedSnapshot == null || trackedSnapshot.getStructureVersion() != snapshot.getStructureVersion()) {
+                resetMovers(snapshot);
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                for (int row : snapshot.rowsForSymbol(symbols[i])) {
+                    topGainers.update(row, snapshot.getPercent(row));
+                    topLosers.update(row, snapshot.getPercent(row));
+                    topPrices.update(row, snapshot.getPrice(row));
+                }
+            }
+            trackedSnapshot = snapshot;
+        }
+    }
+
+    // Dipanggil dengan moversLock; semua nilai diambil ulang dari snapshot
+    private void resetMovers(CryptoRepository.Snapshot snapshot) {
+        int size = snapshot.size();
+        double[] percents = new double[size];
+        double[] prices = new double[size];
+        for (int row = 0; row < size; row++) {
+            percents[row] = snapshot.getPercent(row);
+            prices[row] = snapshot.getPrice(row);
+        }
+        topGainers.reset(size, percents);
+        topLosers.reset(size, percents);
+        topPrices.reset(size, prices);
+        trackedSnapshot = snapshot;
+    }
+
     private void loadReportData() {
-        // Load fresh data
-        cryptoList = fileHandler.loadCryptocurrencies();
+        // Snapshot terbaru dari repository (tanpa baca file); peringkat diambil dalam O(K).
+        // Di sini tracker hanya di-reset bila daftar koin berubah; versi harga hanya dimajukan
+        // oleh batch dari bus supaya tidak ada batch yang terlewat.
+        CryptoRepository.Snapshot latest = repository.snapshot();
+        synchronized (moversLock) {
+            if (trackedSnapshot == null || trackedSnapshot.getStructureVersion() != latest.getStructureVersion()) {
+                resetMovers(latest);
+            }
+            reportSnapshot = trackedSnapshot;
+            gainerCount = topGainers.top(gainerRows);
+            loserCount = topLosers.top(loserRows);
+            priceCount = topPrices.top(priceRows);
+            priceSum = topPrices.getSum();
+        }
+        heatmapPanel.setSnapshot(reportSnapshot);
 
         generateSummary();
 
-        loadAllCoinsToTable();
-
         updatePieChart();
     }
 
@@ -230,15 +366,16 @@ public class ReportFrame extends JFrame {
         // Calculate totals
         double totalMarketCap = 0;
         double totalVolume = 0;
-        int totalCryptos = cryptoList.size();
+        int totalCryptos = reportSnapshot.size();
         int gainers = 0;
         int losers = 0;
 
-        for (Cryptocurrency crypto : cryptoList) {
-            totalMarketCap += crypto.getCurrentPrice() * 1000000; // Simplified
-            totalVolume += Math.abs(crypto.getPriceChange24h()) * 100000;
+        CryptoRepository.Snapshot snapshot = reportSnapshot;
+        for (int row = 0; row < snapshot.size(); row++) {
+            totalMarketCap += snapshot.getPrice(row) * 1000000; // Simplified
+            totalVolume += Math.abs(snapshot.getChange(row)) * 100000;
 
-            if (crypto.getPriceChangePercentage24h() >= 0) {
+            if (snapshot.getPercent(row) >= 0) {
                 gainers++;
             } else {
                 losers++;
@@ -254,111 +391,73 @@ public class ReportFrame extends JFrame {
         summary.append("Top Performers (24h):\n");
         summary.append("----------------------\n");
 
-        // Sort by performance
-        cryptoList.sort((c1, c2) ->
-                Double.compare(c2.getPriceChangePercentage24h(), c1.getPriceChangePercentage24h()));
+        appendMovers(summary, snapshot, gainerRows, gainerCount);
 
-        for (int i = 0; i < Math.min(5, cryptoList.size()); i++) {
-            Cryptocurrency crypto = cryptoList.get(i);
-            summary.append(String.format("%s: %+.2f%% ($%,.2f)\n",
-                    crypto.getSymbol(),
-                    crypto.getPriceChangePercentage24h(),
-                    crypto.getCurrentPrice()));
-        }
+        summary.append("\nWorst Performers (24h):\n");
+        summary.append("----------------------\n");
+        appendMovers(summary, snapshot, loserRows, loserCount);
 
         summaryArea.setText(summary.toString());
     }
 
-    private void loadAllCoinsToTable() {
-        tableModel.setRowCount(0);
-
-        // Tampilkan SEMUA coin yang ada
-        for (int i = 0; i < cryptoList.size(); i++) {
-            Cryptocurrency crypto = cryptoList.get(i);
-
-            String change = crypto.getFormattedChange();
-            String changeDisplay = change;
-            if (change.contains("+")) {
-                changeDisplay = "▲ " + change;
-            } else if (change.contains("-")) {
-                changeDisplay = "▼ " + change;
-            }
-
-            Object[] row = {
-                    i + 1,
-                    crypto.getName(),
-                    crypto.getSymbol(),
-                    crypto.getFormattedPrice(),
-                    changeDisplay,
-                    crypto.getCategory(),
-                    crypto.getLastUpdated().toString().substring(0, 19)
-            };
-            tableModel.addRow(row);
+    private void appendMovers(StringBuilder summary, CryptoRepository.Snapshot snapshot, int[] rows, int count) {
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            summary.append(String.format("%s: %+.2f%% ($%,.2f)\n",
+                    snapshot.getSymbol(row),
+                    snapshot.getPercent(row),
+                    snapshot.getPrice(row)));
         }
     }
 
     private void updatePieChart() {
         DefaultPieDataset dataset = new DefaultPieDataset();
 
-        if (cryptoList.isEmpty()) {
+        if (priceCount == 0) {
             dataset.setValue("No Data", 100);
         } else {
-            // Tampilkan top 5 coins di pie chart
-            List<Cryptocurrency> sortedList = new ArrayList<>(cryptoList);
-            sortedList.sort((c1, c2) -> Double.compare(c2.getCurrentPrice(), c1.getCurrentPrice()));
-
-            int count = Math.min(5, sortedList.size());
-            for (int i = 0; i < count; i++) {
-                Cryptocurrency crypto = sortedList.get(i);
-                dataset.setValue(crypto.getSymbol(), crypto.getCurrentPrice());
+            // Tampilkan top 5 coins di pie chart; sisanya dari jumlah harga yang dijaga tracker
+            double topTotal = 0;
+            for (int i = 0; i < priceCount; i++) {
+                int row = priceRows[i];
+                dataset.setValue(reportSnapshot.getSymbol(row), reportSnapshot.getPrice(row));
+                topTotal += reportSnapshot.getPrice(row);
             }
 
-            double othersTotal = 0;
-            for (int i = count; i < sortedList.size(); i++) {
-                othersTotal += sortedList.get(i).getCurrentPrice();
-            }
-            if (othersTotal > 0) {
+            double othersTotal = priceSum - topTotal;
+            if (othersTotal > 0.005) {
                 dataset.setValue("Others", othersTotal);
             }
         }
 
-        // Update chart
-        PiePlot plot = (PiePlot) pieChartPanel.getChart().getPlot();
-        plot.setDataset(dataset);
-
-        // Update chart title
-        pieChartPanel.getChart().setTitle("Market Distribution (Top " + Math.min(5, cryptoList.size()) + ")");
-
-        // Set colors
-        String[] colors = {"#F7931A", "#627EEA", "#F0B90B", "#0082CE", "#00FFA3", "#808080"};
-        int colorIndex = 0;
-        for (Object key : dataset.getKeys()) {
-            plot.setSectionPaint(key.toString(), Color.decode(colors[colorIndex % colors.length]));
-            colorIndex++;
-        }
+        // Update chart di thread render (JFreeChart tidak thread-safe)
+        String title = "Market Distribution (Top " + priceCount + ")";
+        pieChartPanel.update(() -> {
+            PiePlot plot = (PiePlot) pieChart.getPlot();
+            plot.setDataset(dataset);
+
+            // Update chart title
+            pieChart.setTitle(title);
+
+            // Set colors
+            String[] colors = {"#F7931A", "#627EEA", "#F0B90B", "#0082CE", "#00FFA3", "#808080"};
+            int colorIndex = 0;
+            for (Object key : dataset.getKeys()) {
+                plot.setSectionPaint(key.toString(), Color.decode(colors[colorIndex % colors.length]));
+                colorIndex++;
+            }
+        });
     }
 
     private void refreshData() {
-        refreshBtn.setEnabled(false);
-        refreshBtn.setText("Refreshing...");
-
-        new Thread(() -> {
-            try {
-                loadReportData();
-
-                SwingUtilities.invokeLater(() -> {
-                    refreshBtn.setEnabled(true);
-                    refreshBtn.setText("Refresh");
-                    setTitle("Cryptocurrency Report - Updated: " +
-                            LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
-                });
-
-            } catch (Exception e) {
-                SwingUtilities.invokeLater(() -> {
-                    refreshBtn.setEnabled(true);
-                    refreshBtn.setText("Refresh");
-                });
-            }
-        }).start();
+        // Data sudah di memori, cukup dibangun ulang di EDT; tabel ikut membaca snapshot terbaru
+        try {
+            loadReportData();
+            tableModel.setSnapshot(repository.snapshot());
+            setTitle("Cryptocurrency Report - Updated: " +
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+        } catch (Exception e) {
+            System.err.println("✗ Error refreshing report: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
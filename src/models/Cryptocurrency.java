@@ -1,7 +1,12 @@
 package models;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
+// Data satu koin. Objek bisa berdiri sendiri (harga disimpan di field) atau menjadi
+// view tipis atas satu baris PriceStore milik snapshot repository; view bersifat
+// read-only karena kolom snapshot tidak boleh berubah setelah dipublikasikan.
 public class Cryptocurrency {
     private String id;
     private String name;
@@ -10,7 +15,10 @@ public class Cryptocurrency {
     private double currentPrice;
     private double priceChange24h;
     private double priceChangePercentage24h;
-    private LocalDateTime lastUpdated;
+    private long lastUpdatedNanos;
+
+    private final PriceStore store;
+    private final int row;
 
     public Cryptocurrency(String id, String name, String symbol, String category) {
         this.id = id;
@@ -20,7 +28,33 @@ public class Cryptocurrency {
         this.currentPrice = 0.0;
         this.priceChange24h = 0.0;
         this.priceChangePercentage24h = 0.0;
-        this.lastUpdated = LocalDateTime.now();
+        this.lastUpdatedNanos = PriceStore.nowNanos();
+        this.store = null;
+        this.row = -1;
+    }
+
+    // View atas baris row di store
+    public Cryptocurrency(String id, String name, String symbol, String category, PriceStore store, int row) {
+        this.id = id;
+        this.name = name;
+        this.symbol = symbol;
+        this.category = category;
+        this.store = store;
+        this.row = row;
+    }
+
+    // Salinan berdiri sendiri (nilai harga ikut disalin dari view)
+    public Cryptocurrency(Cryptocurrency other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.symbol = other.symbol;
+        this.category = other.category;
+        this.currentPrice = other.getCurrentPrice();
+        this.priceChange24h = other.getPriceChange24h();
+        this.priceChangePercentage24h = other.getPriceChangePercentage24h();
+        this.lastUpdatedNanos = other.getLastUpdatedNanos();
+        this.store = null;
+        this.row = -1;
     }
 
     public Cryptocurrency(String name, String symbol, String category) {
@@ -33,45 +67,63 @@ public class Cryptocurrency {
 
     // Getters and Setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) { checkWritable(); this.id = id; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { checkWritable(); this.name = name; }
 
     public String getSymbol() { return symbol; }
-    public void setSymbol(String symbol) { this.symbol = symbol; }
+    public void setSymbol(String symbol) { checkWritable(); this.symbol = symbol; }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) { checkWritable(); this.category = category; }
 
-    public double getCurrentPrice() { return currentPrice; }
+    public double getCurrentPrice() { return store != null ? store.getPrice(row) : currentPrice; }
     public void setCurrentPrice(double currentPrice) {
+        checkWritable();
         this.currentPrice = currentPrice;
-        this.lastUpdated = LocalDateTime.now();
+        this.lastUpdatedNanos = PriceStore.nowNanos();
     }
 
-    public double getPriceChange24h() { return priceChange24h; }
+    public double getPriceChange24h() { return store != null ? store.getChange(row) : priceChange24h; }
     public void setPriceChange24h(double priceChange24h) {
+        checkWritable();
         this.priceChange24h = priceChange24h;
     }
 
-    public double getPriceChangePercentage24h() { return priceChangePercentage24h; }
+    public double getPriceChangePercentage24h() {
+        return store != null ? store.getPercent(row) : priceChangePercentage24h;
+    }
     public void setPriceChangePercentage24h(double priceChangePercentage24h) {
+        checkWritable();
         this.priceChangePercentage24h = priceChangePercentage24h;
     }
 
-    public LocalDateTime getLastUpdated() { return lastUpdated; }
+    public long getLastUpdatedNanos() { return store != null ? store.getUpdatedNanos(row) : lastUpdatedNanos; }
+
+    // Dibuat saat diminta saja, tidak disimpan per tick
+    public LocalDateTime getLastUpdated() {
+        long nanos = getLastUpdatedNanos();
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, nanos), ZoneId.systemDefault());
+    }
+
+    private void checkWritable() {
+        if (store != null) {
+            throw new IllegalStateException("Cryptocurrency view is read-only");
+        }
+    }
 
     public String getStatus() {
-        return priceChangePercentage24h >= 0 ? "Naik" : "Turun";
+        return getPriceChangePercentage24h() >= 0 ? "Naik" : "Turun";
     }
 
     public String getFormattedPrice() {
-        return String.format("$%,.2f", currentPrice);
+        return String.format("$%,.2f", getCurrentPrice());
     }
 
     public String getFormattedChange() {
-        String sign = priceChangePercentage24h >= 0 ? "+" : "";
-        return String.format("%s%.2f%%", sign, priceChangePercentage24h);
+        double percent = getPriceChangePercentage24h();
+        String sign = percent >= 0 ? "+" : "";
+        return String.format("%s%.2f%%", sign, percent);
     }
 }
\ No newline at end of file
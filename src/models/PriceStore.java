@@ -0,0 +1,133 @@
+package models;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+// Kolom harga primitif (struct-of-arrays): satu baris per koin, tanpa objek per tick.
+// Kolom dibagi per halaman PAGE_SIZE baris. freeze() menghasilkan store beku untuk
+// snapshot yang berbagi semua halaman dengan store hidup (hanya tabel halaman yang
+// disalin); halaman baru disalin saat pertama kali ditulis sesudah freeze (copy-on-write).
+// Jadi satu batch tick hanya menyalin halaman yang disentuhnya, bukan seluruh kolom.
+public class PriceStore {
+    private static final int PAGE_SHIFT = 7;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final class Page {
+        final double[] prices = new double[PAGE_SIZE];
+        final double[] changes = new double[PAGE_SIZE];
+        final double[] percents = new double[PAGE_SIZE];
+        final long[] updatedNanos = new long[PAGE_SIZE]; // epoch nanos
+
+        Page copy() {
+            Page copy = new Page();
+            System.arraycopy(prices, 0, copy.prices, 0, PAGE_SIZE);
+            System.arraycopy(changes, 0, copy.changes, 0, PAGE_SIZE);
+            System.arraycopy(percents, 0, copy.percents, 0, PAGE_SIZE);
+            System.arraycopy(updatedNanos, 0, copy.updatedNanos, 0, PAGE_SIZE);
+            return copy;
+        }
+    }
+
+    private Page[] pages;
+    private int size;
+
+    // Hanya store hidup: halaman p boleh ditulis langsung bila ownedEpoch[p] == epoch,
+    // selain itu halaman masih dipakai snapshot beku. freeze() cukup menaikkan epoch.
+    private long[] ownedEpoch;
+    private long epoch = 1;
+    private final boolean frozen;
+
+    public PriceStore(int capacity) {
+        int pageCount = Math.max((capacity + PAGE_MASK) >>> PAGE_SHIFT, 1);
+        pages = new Page[pageCount];
+        ownedEpoch = new long[pageCount];
+        frozen = false;
+    }
+
+    private PriceStore(Page[] pages, int size) {
+        this.pages = pages;
+        this.size = size;
+        this.frozen = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int addRow(double price, double change, double percent, long nanos) {
+        set(size, price, change, percent, nanos);
+        return size++;
+    }
+
+    // Tambah count baris sekaligus dari kolom (mis. mapping snapshot), per halaman bulk get
+    public void addRows(DoubleBuffer prices, DoubleBuffer changes, DoubleBuffer percents, long nanos, int count) {
+        int end = size + count;
+        while (size < end) {
+            Page page = writablePage(size >>> PAGE_SHIFT);
+            int offset = size & PAGE_MASK;
+            int n = Math.min(PAGE_SIZE - offset, end - size);
+            prices.get(page.prices, offset, n);
+            changes.get(page.changes, offset, n);
+            percents.get(page.percents, offset, n);
+            Arrays.fill(page.updatedNanos, offset, offset + n, nanos);
+            size += n;
+        }
+    }
+
+    // Perubahan struktur (CRUD), jadi menggeser semua baris sesudahnya boleh O(n)
+    public void removeRow(int row) {
+        for (int i = row; i < size - 1; i++) {
+            int next = i + 1;
+            set(i, getPrice(next), getChange(next), getPercent(next), getUpdatedNanos(next));
+        }
+        size--;
+    }
+
+    public void set(int row, double price, double change, double percent, long nanos) {
+        Page page = writablePage(row >>> PAGE_SHIFT);
+        int offset = row & PAGE_MASK;
+        page.prices[offset] = price;
+        page.changes[offset] = change;
+        page.percents[offset] = percent;
+        page.updatedNanos[offset] = nanos;
+    }
+
+    private Page writablePage(int index) {
+        if (frozen) {
+            throw new IllegalStateException("PriceStore snapshot is read-only");
+        }
+        if (index >= pages.length) {
+            int pageCount = Math.max(pages.length * 2, index + 1);
+            pages = Arrays.copyOf(pages, pageCount);
+            ownedEpoch = Arrays.copyOf(ownedEpoch, pageCount);
+        }
+        Page page = pages[index];
+        if (page == null) {
+            page = new Page();
+        } else if (ownedEpoch[index] == epoch) {
+            return page;
+        } else {
+            page = page.copy();
+        }
+        pages[index] = page;
+        ownedEpoch[index] = epoch;
+        return page;
+    }
+
+    public double getPrice(int row) { return pages[row >>> PAGE_SHIFT].prices[row & PAGE_MASK]; }
+    public double getChange(int row) { return pages[row >>> PAGE_SHIFT].changes[row & PAGE_MASK]; }
+    public double getPercent(int row) { return pages[row >>> PAGE_SHIFT].percents[row & PAGE_MASK]; }
+    public long getUpdatedNanos(int row) { return pages[row >>> PAGE_SHIFT].updatedNanos[row & PAGE_MASK]; }
+
+    // Store beku seukuran isi untuk snapshot: O(jumlah halaman), tanpa menyalin data
+    public PriceStore freeze() {
+        PriceStore snapshot = new PriceStore(Arrays.copyOf(pages, (size + PAGE_MASK) >>> PAGE_SHIFT), size);
+        epoch++;
+        return snapshot;
+    }
+
+    public static long nowNanos() {
+        return System.currentTimeMillis() * 1_000_000L;
+    }
+}
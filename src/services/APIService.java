@@ -1,65 +1,95 @@
 package services;
 
-import java.util.Random;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+// Sumber harga tanpa dependency external. Setiap koin punya jalur harga sendiri di
+// MarketSimulator, jadi harga berturut-turut bergerak wajar (GBM berkorelasi) dan
+// tidak lagi diundi ulang dari nol setiap kali diminta.
 public class APIService {
-    private Random random;
+    // Profil harga per koin: harga dasar + rentang awal, volatilitas tahunan, korelasi pasar
+    private static final int DEFAULT_PROFILE = 0;
+    private static final double[] BASE_PRICES = {1000, 40000, 11000, 300, 0.5, 2000, 0.6, 8, 0.15, 35, 14};
+    private static final double[] PRICE_RANGES = {100, 10000, 500, 50, 0.1, 20, 0.1, 2, 0.05, 10, 3};
+    private static final double[] VOLATILITIES = {1.0, 0.6, 0.75, 0.7, 0.9, 1.0, 0.9, 0.9, 1.2, 1.0, 0.9};
+    private static final double[] MARKET_BETAS = {0.5, 0.9, 0.85, 0.8, 0.7, 0.75, 0.7, 0.7, 0.6, 0.7, 0.7};
+    private static final Map<String, Integer> PROFILES = new HashMap<>();
+
+    // 1 detik nyata = 1 menit pasar, supaya pergerakan terlihat di dashboard
+    private static final double SIMULATED_SECONDS_PER_SECOND = 60;
+    private static final double MIN_STEP_SECONDS = 1;
+
+    static {
+        String[][] names = {
+                {"bitcoin", "btc"}, {"ethereum", "eth"}, {"binancecoin", "bnb"}, {"cardano", "ada"},
+                {"solana", "sol"}, {"ripple", "xrp"}, {"polkadot", "dot"}, {"dogecoin", "doge"},
+                {"avalanche", "avax"}, {"chainlink", "link"}
+        };
+        for (int i = 0; i < names.length; i++) {
+            for (String name : names[i]) {
+                PROFILES.put(name, i + 1);
+            }
+        }
+    }
+
+    private final MarketSimulator simulator;
+    private final Map<String, Integer> handles = new HashMap<>();
+    private long lastStepNanos = System.nanoTime();
 
     public APIService() {
-        this.random = new Random();
+        this(System.nanoTime());
     }
 
-    // Simulasi mendapatkan harga crypto tanpa dependency external
-    public double getCryptoPrice(String cryptoId) {
-        double basePrice;
+    // Seed tetap menghasilkan deret harga yang sama (untuk pengujian)
+    public APIService(long seed) {
+        this.simulator = new MarketSimulator(seed, SIMULATED_SECONDS_PER_SECOND);
+    }
+
+    // Ubah nama/simbol menjadi handle sekali saja; handle dipakai untuk semua refresh berikutnya
+    public int resolveHandle(String cryptoId) {
+        return resolveHandle(cryptoId, 0);
+    }
 
-        switch (cryptoId.toLowerCase()) {
-            case "bitcoin":
-            case "btc":
-                basePrice = 40000 + random.nextDouble() * 10000;
-                break;
-            case "ethereum":
-            case "eth":
-                basePrice = 11000 + random.nextDouble() * 500;
-                break;
-            case "binancecoin":
-            case "bnb":
-                basePrice = 300 + random.nextDouble() * 50;
-                break;
-            case "cardano":
-            case "ada":
-                basePrice = 0.5 + random.nextDouble() * 0.1;
-                break;
-            case "solana":
-            case "sol":
-                basePrice = 2000 + random.nextDouble() * 20;
-                break;
-            case "ripple":
-            case "xrp":
-                basePrice = 0.6 + random.nextDouble() * 0.1;
-                break;
-            case "polkadot":
-            case "dot":
-                basePrice = 8 + random.nextDouble() * 2;
-                break;
-            case "dogecoin":
-            case "doge":
-                basePrice = 0.15 + random.nextDouble() * 0.05;
-                break;
-            case "avalanche":
-            case "avax":
-                basePrice = 35 + random.nextDouble() * 10;
-                break;
-            case "chainlink":
-            case "link":
-                basePrice = 14 + random.nextDouble() * 3;
-                break;
-            default:
-                basePrice = 1000 + random.nextDouble() * 100;
+    // startPrice > 0 memulai jalur dari harga yang sudah diketahui (mis. harga tersimpan)
+    public synchronized int resolveHandle(String cryptoId, double startPrice) {
+        String key = cryptoId.toLowerCase();
+        Integer handle = handles.get(key);
+        if (handle == null) {
+            int profile = PROFILES.getOrDefault(key, DEFAULT_PROFILE);
+            double initialPrice = startPrice > 0 ? startPrice : BASE_PRICES[profile] + PRICE_RANGES[profile] / 2;
+            handle = simulator.addSymbol(initialPrice, 0, VOLATILITIES[profile], MARKET_BETAS[profile]);
+            handles.put(key, handle);
         }
+        return handle;
+    }
+
+    public int[] resolveHandles(List<String> cryptoIds) {
+        int[] resolved = new int[cryptoIds.size()];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = resolveHandle(cryptoIds.get(i));
+        }
+        return resolved;
+    }
+
+    // Isi out[i] dengan harga untuk handles[i] dalam satu putaran; jalur maju sesuai waktu
+    // sejak batch sebelumnya
+    public synchronized void getCryptoPrices(int[] handles, double[] out) {
+        long now = System.nanoTime();
+        double elapsed = Math.max((now - lastStepNanos) / 1e9, MIN_STEP_SECONDS);
+        lastStepNanos = now;
+        simulator.step(handles, elapsed, out);
+    }
+
+    // Simulasi mendapatkan harga crypto tanpa dependency external
+    public double getCryptoPrice(String cryptoId) {
+        double[] out = new double[1];
+        getCryptoPrices(new int[]{resolveHandle(cryptoId)}, out);
+        return out[0];
+    }
 
-        // Tambahkan fluktuasi kecil untuk simulasi real-time
-        double fluctuation = (random.nextDouble() - 0.5) * 0.02; // ±1%
-        return basePrice * (1 + fluctuation);
+    // Akses langsung ke mesin simulasi, mis. untuk mode push berlaju tinggi
+    public MarketSimulator getSimulator() {
+        return simulator;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,316 @@
+package services;
+
+import models.Cryptocurrency;
+import models.PriceStore;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Format snapshot biner berkolom (versi 1). Harga, change dan percent disimpan sebagai
+// kolom double lebar tetap; id, name, symbol dan category disimpan sebagai indeks ke
+// kamus string. File dibaca lewat MappedByteBuffer, jadi membuka snapshot hanya
+// memetakan file tanpa parsing; string baru di-decode saat diminta. readColumns() mengisi
+// kolom repository langsung dari mapping tanpa membuat objek per koin.
+//
+// Layout (big endian):
+//   header   : magic, formatVersion, rowCount, dictCount (4 x int)
+//   kolom    : id, name, symbol, category (int[rowCount] masing-masing), padding ke 8 byte
+//              price, change, percent (double[rowCount] masing-masing)
+//   kamus    : offset int[dictCount + 1], lalu byte UTF-8 semua string
+public class ColumnarSnapshot {
+    public static final int MAGIC = 0x43525953; // "CRYS"
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int STRING_COLUMNS = 4;
+
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int dictCount;
+    private final int stringColumnsPos;
+    private final int priceColumnPos;
+    private final int changeColumnPos;
+    private final int percentColumnPos;
+    private final int dictOffsetsPos;
+    private final int dictDataPos;
+    private final String[] decoded;
+
+    private ColumnarSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a cryptocurrency snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        // Header tidak dipercaya: hitungan dicek dulu dan ukuran dihitung dalam long supaya
+        // header rusak tidak bisa menghasilkan offset negatif karena overflow
+        rowCount = buffer.getInt(8);
+        dictCount = buffer.getInt(12);
+        if (rowCount < 0 || dictCount < 0) {
+            throw new IOException("Corrupt snapshot header");
+        }
+        long stringColumns = HEADER_BYTES;
+        long priceColumn = align8(stringColumns + (long) STRING_COLUMNS * 4 * rowCount);
+        long changeColumn = priceColumn + 8L * rowCount;
+        long percentColumn = changeColumn + 8L * rowCount;
+        long dictOffsets = percentColumn + 8L * rowCount;
+        long dictData = dictOffsets + 4L * (dictCount + 1L);
+        if (dictData > buffer.capacity()) {
+            throw new IOException("Corrupt snapshot layout");
+        }
+        stringColumnsPos = (int) stringColumns;
+        priceColumnPos = (int) priceColumn;
+        changeColumnPos = (int) changeColumn;
+        percentColumnPos = (int) percentColumn;
+        dictOffsetsPos = (int) dictOffsets;
+        dictDataPos = (int) dictData;
+        if ((long) dictDataPos + buffer.getInt(dictOffsetsPos + 4 * dictCount) != buffer.capacity()) {
+            throw new IOException("Corrupt snapshot layout");
+        }
+        decoded = new String[dictCount];
+    }
+
+    public static ColumnarSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + channel.size());
+            }
+            // Mapping tetap valid setelah channel ditutup
+            return new ColumnarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static void write(Path file, List<Cryptocurrency> cryptoList) throws IOException {
+        int rows = cryptoList.size();
+
+        // Bangun kamus string
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> dictBytes = new ArrayList<>();
+        int[] stringIndex = new int[rows * STRING_COLUMNS];
+        long dictDataLength = 0;
+
+        for (int i = 0; i < rows; i++) {
+            Cryptocurrency crypto = cryptoList.get(i);
+            String[] values = {crypto.getId(), crypto.getName(), crypto.getSymbol(), crypto.getCategory()};
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                String value = values[c] == null ? "" : values[c];
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = dictBytes.size();
+                    dictionary.put(value, index);
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    dictBytes.add(bytes);
+                    dictDataLength += bytes.length;
+                }
+                stringIndex[c * rows + i] = index;
+            }
+        }
+
+        long total = align8(HEADER_BYTES + (long) STRING_COLUMNS * 4 * rows)
+                + 3L * 8 * rows + 4L * (dictBytes.size() + 1) + dictDataLength;
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + total + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate(256 * 1024);
+
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(dictBytes.size());
+            for (int value : stringIndex) {
+                ensure(channel, out, 4);
+                out.putInt(value);
+            }
+            long written = HEADER_BYTES + (long) STRING_COLUMNS * 4 * rows;
+            for (long pad = align8(written) - written; pad > 0; pad--) {
+                ensure(channel, out, 1);
+                out.put((byte) 0);
+            }
+
+            for (Cryptocurrency crypto : cryptoList) {
+                ensure(channel, out, 8);
+                out.putDouble(crypto.getCurrentPrice());
+            }
+            for (Cryptocurrency crypto : cryptoList) {
+                ensure(channel, out, 8);
+                out.putDouble(crypto.getPriceChange24h());
+            }
+            for (Cryptocurrency crypto : cryptoList) {
+                ensure(channel, out, 8);
+                out.putDouble(crypto.getPriceChangePercentage24h());
+            }
+
+            int offset = 0;
+            for (byte[] bytes : dictBytes) {
+                ensure(channel, out, 4);
+                out.putInt(offset);
+                offset += bytes.length;
+            }
+            ensure(channel, out, 4);
+            out.putInt(offset);
+
+            for (byte[] bytes : dictBytes) {
+                int pos = 0;
+                while (pos < bytes.length) {
+                    ensure(channel, out, 1);
+                    int n = Math.min(out.remaining(), bytes.length - pos);
+                    out.put(bytes, pos, n);
+                    pos += n;
+                }
+            }
+
+            drain(channel, out);
+            channel.force(true);
+        }
+    }
+
+    // ===== Akses kolom tanpa materialisasi =====
+
+    public int size() {
+        return rowCount;
+    }
+
+    public double getPrice(int row) {
+        return buffer.getDouble(priceColumnPos + 8 * row);
+    }
+
+    public double getChange(int row) {
+        return buffer.getDouble(changeColumnPos + 8 * row);
+    }
+
+    public double getPercent(int row) {
+        return buffer.getDouble(percentColumnPos + 8 * row);
+    }
+
+    // Akses per baris: indeks kamus yang rusak menghasilkan IllegalStateException
+    public String getId(int row) { return string(0, row); }
+    public String getName(int row) { return string(1, row); }
+    public String getSymbol(int row) { return string(2, row); }
+    public String getCategory(int row) { return string(3, row); }
+
+    private String string(int column, int row) {
+        try {
+            return dictionaryString(buffer.getInt(stringColumnsPos + 4 * (column * rowCount + row)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private String dictionaryString(int index) throws IOException {
+        if (index < 0 || index >= dictCount) {
+            throw new IOException("Corrupt snapshot: string index " + index + " out of range");
+        }
+        String value = decoded[index];
+        if (value == null) {
+            int start = buffer.getInt(dictOffsetsPos + 4 * index);
+            int end = buffer.getInt(dictOffsetsPos + 4 * (index + 1));
+            if (start < 0 || end < start || (long) dictDataPos + end > buffer.capacity()) {
+                throw new IOException("Corrupt snapshot: bad dictionary entry " + index);
+            }
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(dictDataPos + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    // Kolom siap pakai untuk repository, tanpa objek per baris: kolom harga disalin per
+    // halaman PriceStore (bulk get) dari mapping, string kolom menunjuk ke string kamus yang
+    // masing-masing di-decode sekali.
+    public Columns readColumns() throws IOException {
+        String[][] strings = new String[STRING_COLUMNS][rowCount];
+        int[] indexes = new int[rowCount];
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringColumnsPos + 4 * column * rowCount);
+            view.asIntBuffer().get(indexes);
+            String[] target = strings[column];
+            for (int row = 0; row < rowCount; row++) {
+                target[row] = dictionaryString(indexes[row]);
+            }
+        }
+
+        // Snapshot tidak menyimpan waktu update; sama seperti load CSV, dianggap baru dimuat
+        PriceStore prices = new PriceStore(rowCount);
+        prices.addRows(doubleColumn(priceColumnPos), doubleColumn(changeColumnPos),
+                doubleColumn(percentColumnPos), PriceStore.nowNanos(), rowCount);
+        return new Columns(strings[0], strings[1], strings[2], strings[3], prices);
+    }
+
+    private DoubleBuffer doubleColumn(int position) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        return view.asDoubleBuffer();
+    }
+
+    // Data koin per kolom; bentuk yang dipakai CryptoRepository untuk mengisi Universe/PriceStore
+    public static class Columns {
+        public final String[] ids;
+        public final String[] names;
+        public final String[] symbols;
+        public final String[] categories;
+        public final PriceStore prices;
+
+        Columns(String[] ids, String[] names, String[] symbols, String[] categories, PriceStore prices) {
+            this.ids = ids;
+            this.names = names;
+            this.symbols = symbols;
+            this.categories = categories;
+            this.prices = prices;
+        }
+
+        // Jalur CSV/sample: objek hasil parse dipindah ke kolom
+        static Columns of(List<Cryptocurrency> cryptoList) {
+            int count = cryptoList.size();
+            String[] ids = new String[count];
+            String[] names = new String[count];
+            String[] symbols = new String[count];
+            String[] categories = new String[count];
+            PriceStore prices = new PriceStore(count);
+            for (int row = 0; row < count; row++) {
+                Cryptocurrency crypto = cryptoList.get(row);
+                ids[row] = crypto.getId();
+                names[row] = crypto.getName();
+                symbols[row] = crypto.getSymbol();
+                categories[row] = crypto.getCategory();
+                prices.addRow(crypto.getCurrentPrice(), crypto.getPriceChange24h(),
+                        crypto.getPriceChangePercentage24h(), crypto.getLastUpdatedNanos());
+            }
+            return new Columns(ids, names, symbols, categories, prices);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    private static long align8(long value) {
+        return (value + 7) & ~7L;
+    }
+
+    private static void ensure(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            drain(channel, out);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
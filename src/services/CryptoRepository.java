@@ -0,0 +1,403 @@
+package services;
+
+import models.Cryptocurrency;
+import models.PriceStore;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Satu-satunya pemilik data cryptocurrency di proses ini. Semua frame membaca dari
+// snapshot di memori dan mendengarkan perubahan; penulisan ke disk berjalan di
+// thread terpisah, jadi membuka frame tidak perlu membaca file lagi.
+//
+// Data disimpan per kolom: identitas koin (id, nama, simbol, kategori) hanya berubah
+// saat CRUD, sedangkan harga ada di PriceStore primitif yang ditulis langsung oleh
+// tick tanpa membuat objek per koin. Snapshot tidak pernah diubah setelah
+// dipublikasikan: penulis (dijaga writeLock) membekukan PriceStore lalu memasang
+// snapshot berikutnya lewat AtomicReference. Pembaca cukup get() tanpa lock.
+// Membekukan hanya menyalin tabel halaman; halaman harga disalin saat pertama ditulis
+// sesudahnya, jadi biaya satu batch tick sebanding jumlah halaman yang disentuh.
+public class CryptoRepository {
+    private static CryptoRepository instance;
+
+    private final FileHandler fileHandler;
+    private final AtomicReference<Snapshot> current;
+    private final Object writeLock = new Object();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final PersistenceWriter writer;
+    private final HistoryStore history;
+    private final OhlcRollups rollups;
+    private final SymbolDictionary symbols = new SymbolDictionary();
+
+    // Dijaga oleh writeLock
+    private final PriceStore live;
+    private int[] changedRows = new int[64];
+
+    public interface ChangeListener {
+        void repositoryChanged(Snapshot snapshot);
+    }
+
+    // Kolom identitas; dibangun ulang hanya saat daftar koin berubah
+    private static class Universe {
+        final String[] ids;
+        final String[] names;
+        final String[] symbols;
+        final String[] categories;
+        final Map<String, Integer> indexById;
+        final int[][] rowsBySymbolHandle;
+
+        Universe(String[] ids, String[] names, String[] symbols, String[] categories, SymbolDictionary dictionary) {
+            this.ids = ids;
+            this.names = names;
+            this.symbols = symbols;
+            this.categories = categories;
+
+            indexById = new HashMap<>(ids.length * 2);
+            int[] handles = new int[ids.length];
+            int[] counts = new int[0];
+            for (int row = 0; row < ids.length; row++) {
+                indexById.put(ids[row], row);
+                handles[row] = dictionary.intern(symbols[row]);
+                if (handles[row] >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(dictionary.size(), handles[row] + 1));
+                }
+                counts[handles[row]]++;
+            }
+            rowsBySymbolHandle = new int[counts.length][];
+            for (int row = ids.length - 1; row >= 0; row--) {
+                int handle = handles[row];
+                if (rowsBySymbolHandle[handle] == null) {
+                    rowsBySymbolHandle[handle] = new int[counts[handle]];
+                }
+                rowsBySymbolHandle[handle][--counts[handle]] = row;
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    // Daftar pada satu versi tertentu; tidak berubah meskipun repository berubah
+    public static class Snapshot {
+        private static final int[] NO_ROWS = new int[0];
+
+        private final long version;
+        private final long structureVersion;
+        private final Universe universe;
+        private final PriceStore prices;
+        private final SymbolDictionary symbols;
+        // Dibuat saat get() pertama: kebanyakan snapshot tick tidak pernah diminta view-nya
+        private volatile AtomicReferenceArray<Cryptocurrency> views;
+        private final List<Cryptocurrency> cryptos;
+
+        Snapshot(long version, long structureVersion, Universe universe, PriceStore prices, SymbolDictionary symbols) {
+            this.version = version;
+            this.structureVersion = structureVersion;
+            this.universe = universe;
+            this.prices = prices;
+            this.symbols = symbols;
+            this.cryptos = new AbstractList<Cryptocurrency>() {
+                @Override
+                public Cryptocurrency get(int row) {
+                    return Snapshot.this.get(row);
+                }
+
+                @Override
+                public int size() {
+                    return universe.size();
+                }
+            };
+        }
+
+        public long getVersion() { return version; }
+        // Hanya naik saat daftar/identitas koin berubah (CRUD), tidak saat tick harga
+        public long getStructureVersion() { return structureVersion; }
+        public int size() { return universe.size(); }
+
+        // Akses per baris tanpa membuat objek
+        public String getId(int row) { return universe.ids[row]; }
+        public String getName(int row) { return universe.names[row]; }
+        public String getSymbol(int row) { return universe.symbols[row]; }
+        public String getCategory(int row) { return universe.categories[row]; }
+        public double getPrice(int row) { return prices.getPrice(row); }
+        public double getChange(int row) { return prices.getChange(row); }
+        public double getPercent(int row) { return prices.getPercent(row); }
+        public long getUpdatedNanos(int row) { return prices.getUpdatedNanos(row); }
+
+        // -1 bila id tidak ada
+        public int indexOf(String id) {
+            Integer row = universe.indexById.get(id);
+            return row == null ? -1 : row;
+        }
+
+        // Semua baris dengan simbol ini (boleh lebih dari satu koin per simbol)
+        public int[] rowsForSymbol(String symbol) {
+            int handle = symbols.handleOf(symbol);
+            if (handle < 0 || handle >= universe.rowsBySymbolHandle.length) {
+                return NO_ROWS;
+            }
+            int[] rows = universe.rowsBySymbolHandle[handle];
+            return rows == null ? NO_ROWS : rows;
+        }
+
+        // View read-only atas satu baris; dibuat saat pertama diminta lalu di-cache
+        public Cryptocurrency get(int row) {
+            AtomicReferenceArray<Cryptocurrency> views = this.views;
+            if (views == null) {
+                synchronized (this) {
+                    views = this.views;
+                    if (views == null) {
+                        views = new AtomicReferenceArray<>(universe.size());
+                        this.views = views;
+                    }
+                }
+            }
+            Cryptocurrency view = views.get(row);
+            if (view == null) {
+                view = new Cryptocurrency(universe.ids[row], universe.names[row], universe.symbols[row],
+                        universe.categories[row], prices, row);
+                if (!views.compareAndSet(row, null, view)) {
+                    view = views.get(row);
+                }
+            }
+            return view;
+        }
+
+        public List<Cryptocurrency> getCryptos() { return cryptos; }
+
+        public Cryptocurrency findById(String id) {
+            int row = indexOf(id);
+            return row < 0 ? null : get(row);
+        }
+    }
+
+    public static synchronized CryptoRepository getInstance() {
+        if (instance == null) {
+            instance = new CryptoRepository(new FileHandler());
+        }
+        return instance;
+    }
+
+    private CryptoRepository(FileHandler fileHandler) {
+        this.fileHandler = fileHandler;
+        // Kolom hasil load dipakai langsung sebagai Universe dan PriceStore live
+        ColumnarSnapshot.Columns loaded = fileHandler.loadCryptocurrencies();
+        int count = loaded.size();
+        this.live = loaded.prices;
+        Universe universe = new Universe(loaded.ids, loaded.names, loaded.symbols, loaded.categories, symbols);
+        this.current = new AtomicReference<>(new Snapshot(0, 0, universe, live.freeze(), symbols));
+        this.writer = new PersistenceWriter(fileHandler);
+        this.history = new HistoryStore();
+        this.rollups = new OhlcRollups(history);
+        System.out.println("✓ Repository ready with " + count + " cryptocurrencies");
+    }
+
+    // Tanpa lock dan tanpa salinan
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // ===== CRUD =====
+
+    // Nilai crypto disalin ke kolom repository; objeknya sendiri tidak disimpan
+    public CompletableFuture<Boolean> add(Cryptocurrency crypto) {
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            Universe u = base.universe;
+            int n = u.size();
+            String[] ids = Arrays.copyOf(u.ids, n + 1);
+            String[] names = Arrays.copyOf(u.names, n + 1);
+            String[] symbolColumn = Arrays.copyOf(u.symbols, n + 1);
+            String[] categories = Arrays.copyOf(u.categories, n + 1);
+            ids[n] = crypto.getId();
+            names[n] = crypto.getName();
+            symbolColumn[n] = crypto.getSymbol();
+            categories[n] = crypto.getCategory();
+            live.addRow(crypto.getCurrentPrice(), crypto.getPriceChange24h(),
+                    crypto.getPriceChangePercentage24h(), crypto.getLastUpdatedNanos());
+            publishStructure(base, ids, names, symbolColumn, categories);
+        }
+        return commit();
+    }
+
+    public CompletableFuture<Boolean> update(String id, String name, String symbol, String category) {
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            int row = base.indexOf(id);
+            if (row < 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            Universe u = base.universe;
+            String[] names = u.names.clone();
+            String[] symbolColumn = u.symbols.clone();
+            String[] categories = u.categories.clone();
+            names[row] = name;
+            symbolColumn[row] = symbol;
+            categories[row] = category;
+            publishStructure(base, u.ids, names, symbolColumn, categories);
+        }
+        return commit();
+    }
+
+    public CompletableFuture<Boolean> remove(String id) {
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            int row = base.indexOf(id);
+            if (row < 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            Universe u = base.universe;
+            live.removeRow(row);
+            publishStructure(base, without(u.ids, row), without(u.names, row),
+                    without(u.symbols, row), without(u.categories, row));
+        }
+        return commit();
+    }
+
+    private void publishStructure(Snapshot base, String[] ids, String[] names, String[] symbolColumn,
+                                  String[] categories) {
+        Universe universe = new Universe(ids, names, symbolColumn, categories, symbols);
+        current.set(new Snapshot(base.version + 1, base.structureVersion + 1, universe, live.freeze(), symbols));
+    }
+
+    private static String[] without(String[] column, int row) {
+        String[] next = new String[column.length - 1];
+        System.arraycopy(column, 0, next, 0, row);
+        System.arraycopy(column, row + 1, next, row, next.length - row);
+        return next;
+    }
+
+    // ===== Price updates =====
+
+    // Terapkan harga baru (target dicocokkan lewat id); hanya harga yang benar-benar
+    // berubah masuk ke journal
+    public CompletableFuture<Boolean> applyPriceTicks(List<Cryptocurrency> targets, double[] newPrices) {
+        Snapshot snapshot;
+        CompletableFuture<Boolean> saved;
+        int changedCount;
+        long now = System.currentTimeMillis();
+
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            changedCount = 0;
+            for (int i = 0; i < targets.size(); i++) {
+                int row = base.indexOf(targets.get(i).getId());
+                if (row >= 0 && applyTick(base.universe, row, newPrices[i], now)) {
+                    changedCount = markChanged(changedCount, row);
+                }
+            }
+            if (changedCount == 0) {
+                return CompletableFuture.completedFuture(true);
+            }
+            snapshot = new Snapshot(base.version + 1, base.structureVersion, base.universe, live.freeze(), symbols);
+            current.set(snapshot);
+            // Writer menyalin nomor baris ke BitSet-nya sendiri, jadi changedRows aman dipakai ulang
+            saved = writer.appendTicks(snapshot, changedRows, changedCount);
+        }
+
+        notifyListeners(snapshot);
+        return saved;
+    }
+
+    // Jalur feed: harga per simbol diterapkan ke semua baris bersimbol itu, langsung
+    // ke kolom primitif tanpa objek per koin
+    public CompletableFuture<Boolean> applySymbolTicks(String[] tickSymbols, double[] newPrices, int count) {
+        Snapshot snapshot;
+        CompletableFuture<Boolean> saved;
+        int changedCount;
+        long now = System.currentTimeMillis();
+
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            changedCount = 0;
+            for (int i = 0; i < count; i++) {
+                for (int row : base.rowsForSymbol(tickSymbols[i])) {
+                    if (applyTick(base.universe, row, newPrices[i], now)) {
+                        changedCount = markChanged(changedCount, row);
+                    }
+                }
+            }
+            if (changedCount == 0) {
+                return CompletableFuture.completedFuture(true);
+            }
+            snapshot = new Snapshot(base.version + 1, base.structureVersion, base.universe, live.freeze(), symbols);
+            current.set(snapshot);
+            // Writer menyalin nomor baris ke BitSet-nya sendiri, jadi changedRows aman dipakai ulang
+            saved = writer.appendTicks(snapshot, changedRows, changedCount);
+        }
+
+        notifyListeners(snapshot);
+        return saved;
+    }
+
+    // Dipanggil di bawah writeLock; false bila harga tidak berubah
+    private boolean applyTick(Universe universe, int row, double newPrice, long now) {
+        double oldPrice = live.getPrice(row);
+        if (newPrice == oldPrice) {
+            return false;
+        }
+        double change = ((newPrice - oldPrice) / oldPrice) * 100;
+        live.set(row, newPrice, newPrice - oldPrice, change, now * 1_000_000L);
+        history.record(universe.symbols[row], now, newPrice);
+        rollups.record(universe.symbols[row], now, newPrice);
+        return true;
+    }
+
+    private int markChanged(int count, int row) {
+        if (count == changedRows.length) {
+            changedRows = Arrays.copyOf(changedRows, count * 2);
+        }
+        changedRows[count] = row;
+        return count + 1;
+    }
+
+    // ===== Persistence =====
+
+    private CompletableFuture<Boolean> commit() {
+        Snapshot snapshot = snapshot();
+        notifyListeners(snapshot);
+        return writer.saveAll(snapshot);
+    }
+
+    // Future yang selesai setelah semua perubahan sejauh ini tersimpan di disk
+    public CompletableFuture<Boolean> flush() {
+        return writer.flush();
+    }
+
+    // Dipanggil saat aplikasi ditutup
+    public void shutdown() {
+        writer.shutdown(5000);
+        history.flush();
+    }
+
+    // Riwayat tick per simbol
+    public HistoryStore getHistory() {
+        return history;
+    }
+
+    // Candle OHLC per simbol untuk setiap timeframe chart
+    public OhlcRollups getRollups() {
+        return rollups;
+    }
+
+    private void notifyListeners(Snapshot snapshot) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.repositoryChanged(snapshot);
+            } catch (Exception e) {
+                System.err.println("✗ Repository listener error: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Parser CSV level byte (RFC-4180): field dengan tanda kutip, "" sebagai escape,
+// newline di dalam kutip, dan CRLF. Satu baris dibaca per nextRow(); field hanya
+// disimpan sebagai offset ke buffer, jadi tidak ada String sementara per field.
+public class CsvParser {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 64;
+
+    // Pangkat 10 yang bisa direpresentasikan persis sebagai double
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream input;
+    private final ByteBuffer region;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldQuoted = new boolean[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS];
+    private int fieldCount;
+
+    private byte[] scratch = new byte[256];
+    private long rowCount;
+    private long bytesRead;
+
+    // Mode streaming: buffer diisi ulang dari InputStream
+    public CsvParser(InputStream input) {
+        this.input = input;
+        this.region = null;
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    // Mode region: data dibaca dari ByteBuffer (misalnya potongan file yang di-mmap)
+    // per blok ke buffer internal, tanpa system call
+    public CsvParser(ByteBuffer region) {
+        this.input = null;
+        this.region = region.slice();
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    public boolean nextRow() throws IOException {
+        while (true) {
+            int rowStart = position;
+            if (endOfInput && rowStart >= limit) {
+                fieldCount = 0;
+                return false;
+            }
+
+            int end = scanRow(rowStart, endOfInput);
+            if (end < 0) {
+                // Baris belum lengkap di buffer
+                refill(rowStart);
+                continue;
+            }
+
+            position = end;
+            // Baris kosong dilewati
+            if (fieldCount == 1 && fieldStart[0] == fieldEnd[0] && !fieldQuoted[0]) {
+                continue;
+            }
+            rowCount++;
+            return true;
+        }
+    }
+
+    // Mengembalikan posisi setelah newline, atau -1 jika baris terpotong di akhir buffer.
+    // Jika atEnd, akhir data diperlakukan sebagai newline.
+    private int scanRow(int rowStart, boolean atEnd) {
+        final byte[] data = buffer;
+        final int end = limit;
+        fieldCount = 0;
+        int i = rowStart;
+
+        while (true) {
+            if (i < end && data[i] == '"') {
+                // Field dengan kutip: cari kutip penutup, "" adalah escape
+                int start = ++i;
+                boolean escaped = false;
+                int contentEnd;
+                while (true) {
+                    if (i >= end) {
+                        if (!atEnd) return -1;
+                        // Kutip tidak ditutup: ambil sisa data apa adanya
+                        addField(start, end, true, escaped);
+                        return end;
+                    }
+                    if (data[i] == '"') {
+                        if (i + 1 < end && data[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        if (i + 1 >= end && !atEnd) return -1;
+                        contentEnd = i++;
+                        break;
+                    }
+                    i++;
+                }
+
+                // Karakter liar setelah kutip penutup diabaikan
+                while (i < end && data[i] != ',' && data[i] != '\n') i++;
+                addField(start, contentEnd, true, escaped);
+                if (i >= end) {
+                    if (!atEnd) return -1;
+                    return end;
+                }
+                if (data[i++] == '\n') return i;
+                continue;
+            }
+
+            // Field tanpa kutip: loop ketat sampai koma atau newline
+            int start = i;
+            while (i < end) {
+                byte b = data[i];
+                if (b == ',' || b == '\n') break;
+                i++;
+            }
+            if (i >= end) {
+                if (!atEnd) return -1;
+                addField(start, trimCarriageReturn(start, end), false, false);
+                return end;
+            }
+            if (data[i] == '\n') {
+                addField(start, trimCarriageReturn(start, i), false, false);
+                return i + 1;
+            }
+            addField(start, i, false, false);
+            i++;
+        }
+    }
+
+    private int trimCarriageReturn(int start, int end) {
+        return (end > start && buffer[end - 1] == '\r') ? end - 1 : end;
+    }
+
+    private void addField(int start, int end, boolean quoted, boolean escaped) {
+        if (fieldCount < MAX_FIELDS) {
+            fieldStart[fieldCount] = start;
+            fieldEnd[fieldCount] = end;
+            fieldQuoted[fieldCount] = quoted;
+            fieldEscaped[fieldCount] = escaped;
+            fieldCount++;
+        }
+    }
+
+    private void refill(int rowStart) throws IOException {
+        int pending = limit - rowStart;
+
+        if (rowStart > 0) {
+            System.arraycopy(buffer, rowStart, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            // Satu baris lebih besar dari buffer
+            byte[] bigger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, bigger, 0, pending);
+            buffer = bigger;
+        }
+
+        position = 0;
+        limit = pending;
+
+        int n;
+        if (region != null) {
+            n = Math.min(region.remaining(), buffer.length - limit);
+            if (n == 0) {
+                n = -1;
+            } else {
+                region.get(buffer, limit, n);
+            }
+        } else {
+            n = input.read(buffer, limit, buffer.length - limit);
+        }
+
+        if (n < 0) {
+            endOfInput = true;
+        } else {
+            limit += n;
+            bytesRead += n;
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public String getString(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldQuoted[field]) {
+            while (start < end && (buffer[start] & 0xFF) <= ' ') start++;
+            while (end > start && (buffer[end - 1] & 0xFF) <= ' ') end--;
+        }
+
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+
+        if (!fieldEscaped[field]) {
+            return new String(buffer, start, length, StandardCharsets.UTF_8);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            scratch[n++] = b;
+            if (b == '"' && fieldEscaped[field]) {
+                i++; // lewati kutip kedua dari pasangan ""
+            }
+        }
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    // Parse double langsung dari byte. Angka desimal biasa (<= 18 digit, eksponen kecil)
+    // dihitung persis; bentuk lain jatuh ke Double.parseDouble.
+    public double getDouble(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        while (start < end && (buffer[start] & 0xFF) <= ' ') start++;
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') end--;
+
+        if (start == end) {
+            throw new NumberFormatException("empty number");
+        }
+
+        int i = start;
+        boolean negative = false;
+        byte b = buffer[i];
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+
+        for (; i < end; i++) {
+            b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits == 18) {
+                    // Terlalu banyak digit signifikan untuk jalur cepat
+                    return Double.parseDouble(getString(field));
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) digits++;
+                if (seenDot) scale--;
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+
+        if (!seenDigit) {
+            return Double.parseDouble(getString(field));
+        }
+
+        if (i < end) {
+            if ((b == 'e' || b == 'E') && i + 1 < end) {
+                i++;
+                boolean expNegative = false;
+                byte e = buffer[i];
+                if (e == '-' || e == '+') {
+                    expNegative = e == '-';
+                    i++;
+                }
+                int exponent = 0;
+                int expStart = i;
+                for (; i < end; i++) {
+                    e = buffer[i];
+                    if (e < '0' || e > '9' || exponent > 10000) break;
+                    exponent = exponent * 10 + (e - '0');
+                }
+                if (i == expStart || i < end) {
+                    return Double.parseDouble(getString(field));
+                }
+                scale += expNegative ? -exponent : exponent;
+            } else {
+                return Double.parseDouble(getString(field));
+            }
+        }
+
+        double value;
+        if (mantissa < (1L << 53) && scale >= -22 && scale <= 22) {
+            value = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+        } else {
+            return Double.parseDouble(getString(field));
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,124 @@
+package services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Protokol biner feed harga (big endian). Setiap frame:
+//
+//   [int length][byte type][payload]     length = jumlah byte setelah field length
+//
+//   HELLO      server -> klien : [int magic][int version]   (selalu frame pertama)
+//   SUBSCRIBE  klien -> server : [short len][UTF-8 symbol][double startPrice]
+//   DEFINE     server -> klien : [int id][short len][UTF-8 symbol]
+//   TICKS      server -> klien : [long timestampMillis][int count][(int id, double price) x count]
+//
+// Simbol hanya dikirim sekali lewat DEFINE; tick selanjutnya cukup memakai id 4 byte.
+// Panjang frame divalidasi sebelum dibaca: frame dengan panjang di luar batas atau
+// payload yang tidak cocok dengan tipenya membuat koneksi ditutup.
+final class FeedProtocol {
+    static final byte SUBSCRIBE = 1;
+    static final byte DEFINE = 2;
+    static final byte TICKS = 3;
+    static final byte HELLO = 4;
+
+    static final int MAGIC = 0x43524650; // "CRFP"
+    static final int VERSION = 1;
+
+    static final int TICK_BYTES = 12;
+    static final int TICKS_HEADER_BYTES = 1 + 8 + 4;
+    static final int HELLO_BYTES = 1 + 4 + 4;
+
+    // Batas panjang frame: klien hanya mengirim SUBSCRIBE, server paling besar batch TICKS
+    static final int MAX_CLIENT_FRAME_BYTES = 1 + 2 + 0xFFFF + 8;
+    static final int MAX_SERVER_FRAME_BYTES = 16 << 20;
+
+    private FeedProtocol() {
+    }
+
+    static ByteBuffer helloFrame() {
+        ByteBuffer frame = ByteBuffer.allocate(4 + HELLO_BYTES);
+        frame.putInt(HELLO_BYTES).put(HELLO).putInt(MAGIC).putInt(VERSION);
+        frame.flip();
+        return frame;
+    }
+
+    static boolean isHello(int length, byte type, int magic, int version) {
+        return length == HELLO_BYTES && type == HELLO && magic == MAGIC && version == VERSION;
+    }
+
+    static void checkLength(int length, int max) throws IOException {
+        if (length < 1 || length > max) {
+            throw new IOException("Invalid feed frame length " + length);
+        }
+    }
+
+    // Panjang payload yang diharapkan untuk frame bertipe type, -1 bila tipe tidak dikenal.
+    // Buffer berada di awal payload (setelah byte tipe) dan minimal berisi seluruh frame.
+    static int expectedLength(ByteBuffer in, byte type, int length) {
+        int pos = in.position();
+        switch (type) {
+            case SUBSCRIBE:
+                return length < 1 + 2 + 8 ? 0 : 1 + 2 + (in.getShort(pos) & 0xFFFF) + 8;
+            case DEFINE:
+                return length < 1 + 4 + 2 ? 0 : 1 + 4 + 2 + (in.getShort(pos + 4) & 0xFFFF);
+            case TICKS: {
+                if (length < TICKS_HEADER_BYTES) {
+                    return 0;
+                }
+                long count = in.getInt(pos + 8);
+                return count < 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, TICKS_HEADER_BYTES + count * TICK_BYTES);
+            }
+            case HELLO:
+                return HELLO_BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    static ByteBuffer subscribeFrame(String symbol, double startPrice) {
+        byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + 2 + bytes.length + 8);
+        frame.putInt(frame.capacity() - 4).put(SUBSCRIBE)
+                .putShort((short) bytes.length).put(bytes).putDouble(startPrice);
+        frame.flip();
+        return frame;
+    }
+
+    static ByteBuffer defineFrame(int id, String symbol) {
+        byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + 4 + 2 + bytes.length);
+        frame.putInt(frame.capacity() - 4).put(DEFINE)
+                .putInt(id).putShort((short) bytes.length).put(bytes);
+        frame.flip();
+        return frame;
+    }
+
+    static ByteBuffer ticksFrame(long timestamp, int[] ids, double[] prices, int count) {
+        ByteBuffer frame = ByteBuffer.allocate(4 + TICKS_HEADER_BYTES + count * TICK_BYTES);
+        frame.putInt(frame.capacity() - 4).put(TICKS).putLong(timestamp).putInt(count);
+        for (int i = 0; i < count; i++) {
+            frame.putInt(ids[i]).putDouble(prices[i]);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Pastikan buffer baca muat satu frame utuh; buffer dalam mode tulis
+    static ByteBuffer ensureCapacity(ByteBuffer in, int frameBytes) {
+        if (frameBytes <= in.capacity()) {
+            return in;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(frameBytes, in.capacity() * 2));
+        in.flip();
+        larger.put(in);
+        return larger;
+    }
+}
@@ -2,13 +2,37 @@ package services;
 
 import models.Cryptocurrency;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
+import java.util.zip.CRC32;
 import java.time.format.DateTimeFormatter;
 
 public class FileHandler {
     private static final String CRYPTO_FILE = "cryptocurrencies.csv";
+    // Snapshot biner berkolom, ditulis bersama CSV; CSV tetap ada untuk interop
+    private static final String SNAPSHOT_FILE = "cryptocurrencies.snapshot";
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // Journal harga: hanya tick yang berubah di-append, CSV jadi checkpoint periodik
+    private static final String JOURNAL_FILE = "cryptocurrencies.journal";
+    private static final byte RECORD_PRICE_TICK = 1;
+    private static final int MAX_ID_BYTES = 1024;
+    // header: type(1) + idLen(2), body: price, change, percent (3 x 8) + timestamp (8), trailer: crc (4)
+    private static final int RECORD_FIXED_BYTES = 1 + 2 + 8 * 4 + 4;
+    private static final int CHECKPOINT_MIN_RECORDS = 10000;
+    private static final int CHECKPOINT_RECORDS_PER_SYMBOL = 4;
+
+    // Di atas ukuran ini CSV di-load paralel
+    private static final long PARALLEL_LOAD_THRESHOLD = 8L * 1024 * 1024;
+
+    private FileChannel journalChannel;
+    private ByteBuffer journalBuffer = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    private int journalRecords = 0;
+
     public FileHandler() {
         System.out.println("=== FILE HANDLER INITIALIZED ===");
         System.out.println("File location: " + new File(CRYPTO_FILE).getAbsolutePath());
@@ -71,7 +95,9 @@ public class FileHandler {
         return sampleData;
     }
 
-    public List<Cryptocurrency> loadCryptocurrencies() {
+    // Data dimuat langsung dalam bentuk kolom: snapshot berkolom dibaca dari mapping tanpa
+    // objek per koin; hanya jalur CSV/sample yang masih mem-parse ke objek dulu
+    public ColumnarSnapshot.Columns loadCryptocurrencies() {
         System.out.println("\n=== LOADING CRYPTOCURRENCIES ===");
 
         File cryptoFile = new File(CRYPTO_FILE);
@@ -80,61 +106,126 @@ public class FileHandler {
 
         if (!cryptoFile.exists()) {
             System.out.println("File not found. Creating sample data...");
-            return createSampleCryptocurrencies();
+            return ColumnarSnapshot.Columns.of(createSampleCryptocurrencies());
         }
 
-        List<Cryptocurrency> cryptoList = new ArrayList<>();
+        ColumnarSnapshot.Columns columns = loadSnapshotIfFresh(cryptoFile);
+        if (columns == null) {
+            List<Cryptocurrency> cryptoList;
+            try {
+                cryptoList = cryptoFile.length() >= PARALLEL_LOAD_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1
+                        ? loadCsvParallel(cryptoFile)
+                        : loadCsvSequential(cryptoFile);
+                System.out.println("✓ Loaded " + cryptoList.size() + " cryptocurrencies");
+
+            } catch (IOException e) {
+                System.err.println("✗ Error reading file: " + e.getMessage());
+                return ColumnarSnapshot.Columns.of(createSampleCryptocurrencies());
+            }
+            columns = ColumnarSnapshot.Columns.of(cryptoList);
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(cryptoFile))) {
-            String line;
-            int lineNumber = 0;
-            int loadedCount = 0;
+        replayJournal(columns);
+        return columns;
+    }
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (lineNumber == 1) continue; // Skip header
+    // Snapshot dipakai hanya jika tidak lebih lama dari CSV (CSV bisa saja diedit manual).
+    // Snapshot rusak apa pun bentuknya jatuh kembali ke CSV, tidak menggagalkan startup.
+    private ColumnarSnapshot.Columns loadSnapshotIfFresh(File cryptoFile) {
+        File snapshotFile = new File(SNAPSHOT_FILE);
+        if (!snapshotFile.exists() || snapshotFile.lastModified() < cryptoFile.lastModified()) {
+            return null;
+        }
 
-                String[] data = line.split(",", -1);
+        try {
+            long startTime = System.nanoTime();
+            ColumnarSnapshot snapshot = ColumnarSnapshot.open(snapshotFile.toPath());
+            long mappedTime = System.nanoTime();
+            ColumnarSnapshot.Columns columns = snapshot.readColumns();
 
-                if (data.length >= 7) {
-                    try {
-                        Cryptocurrency crypto = new Cryptocurrency(
-                                data[0].trim(),
-                                data[1].trim(),
-                                data[2].trim(),
-                                data[3].trim()
-                        );
+            System.out.println(String.format("✓ Loaded %d cryptocurrencies from snapshot (mapped in %.2f ms, total %.1f ms)",
+                    columns.size(), (mappedTime - startTime) / 1e6, (System.nanoTime() - startTime) / 1e6));
+            return columns;
 
-                        crypto.setCurrentPrice(Double.parseDouble(data[4].trim()));
-                        crypto.setPriceChange24h(Double.parseDouble(data[5].trim()));
-                        crypto.setPriceChangePercentage24h(Double.parseDouble(data[6].trim()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ Snapshot unreadable, falling back to CSV: " + e.getMessage());
+            return null;
+        }
+    }
 
-                        cryptoList.add(crypto);
-                        loadedCount++;
+    private List<Cryptocurrency> loadCsvSequential(File cryptoFile) throws IOException {
+        List<Cryptocurrency> cryptoList = new ArrayList<>();
+        long startTime = System.nanoTime();
 
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error parsing line " + lineNumber);
+        try (InputStream in = new FileInputStream(cryptoFile)) {
+            CsvParser parser = new CsvParser(in);
+
+            if (parser.nextRow()) { // Skip header
+                while (parser.nextRow()) {
+                    Cryptocurrency crypto = parseRow(parser);
+                    if (crypto != null) {
+                        cryptoList.add(crypto);
                     }
                 }
             }
 
-            System.out.println("✓ Loaded " + loadedCount + " cryptocurrencies");
-
-        } catch (IOException e) {
-            System.err.println("✗ Error reading file: " + e.getMessage());
-            return createSampleCryptocurrencies();
+            printLoadStats(parser.getRowCount(), parser.getBytesRead(), System.nanoTime() - startTime);
         }
+        return cryptoList;
+    }
 
+    // File besar: mmap + parse paralel per potongan, urutan hasil tetap sama
+    private List<Cryptocurrency> loadCsvParallel(File cryptoFile) throws IOException {
+        long startTime = System.nanoTime();
+        ParallelCsvLoader loader = new ParallelCsvLoader();
+        List<Cryptocurrency> cryptoList = loader.load(cryptoFile.toPath());
+
+        System.out.print("[parallel] ");
+        printLoadStats(loader.getRowCount(), loader.getBytesRead(), System.nanoTime() - startTime);
         return cryptoList;
     }
 
+    // Satu baris CSV -> Cryptocurrency, null jika kolom kurang atau angka tidak valid
+    static Cryptocurrency parseRow(CsvParser parser) {
+        if (parser.getFieldCount() < 7) {
+            return null;
+        }
+
+        try {
+            Cryptocurrency crypto = new Cryptocurrency(
+                    parser.getString(0),
+                    parser.getString(1),
+                    parser.getString(2),
+                    parser.getString(3)
+            );
+
+            crypto.setCurrentPrice(parser.getDouble(4));
+            crypto.setPriceChange24h(parser.getDouble(5));
+            crypto.setPriceChangePercentage24h(parser.getDouble(6));
+            return crypto;
+
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing row " + parser.getRowCount());
+            return null;
+        }
+    }
+
+    static void printLoadStats(long rows, long bytes, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        System.out.println(String.format("Parsed %,d rows (%,d bytes) in %.1f ms - %,.0f rows/s, %.1f MB/s",
+                rows, bytes, elapsedNanos / 1e6, rows / seconds, bytes / seconds / (1024 * 1024)));
+    }
+
     public boolean saveCryptocurrencies(List<Cryptocurrency> cryptoList) {
         System.out.println("\n=== SAVING CRYPTOCURRENCIES ===");
         System.out.println("Saving " + cryptoList.size() + " cryptocurrencies");
 
         File cryptoFile = new File(CRYPTO_FILE);
+        File tempFile = new File(CRYPTO_FILE + ".tmp");
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(cryptoFile))) {
+        // Tulis ke file sementara lalu rename, supaya crash di tengah tulis tidak merusak CSV lama
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
             // Write header
             writer.write("ID,Name,Symbol,Category,Price,Change24h,ChangePercent24h");
             writer.newLine();
@@ -155,18 +246,218 @@ public class FileHandler {
             }
 
             writer.flush();
-            System.out.println("✓ Saved to: " + cryptoFile.getAbsolutePath());
-            return true;
+            out.getFD().sync();
+
+        } catch (IOException e) {
+            System.err.println("✗ Save error: " + e.getMessage());
+            tempFile.delete();
+            return false;
+        }
 
+        try {
+            moveAtomically(tempFile.toPath(), cryptoFile.toPath());
         } catch (IOException e) {
             System.err.println("✗ Save error: " + e.getMessage());
             return false;
         }
+
+        saveSnapshot(cryptoList);
+
+        // CSV sekarang sudah memuat semua tick, journal lama tidak diperlukan lagi
+        truncateJournal();
+
+        System.out.println("✓ Saved to: " + cryptoFile.getAbsolutePath());
+        return true;
+    }
+
+    private void saveSnapshot(List<Cryptocurrency> cryptoList) {
+        Path snapshotPath = Paths.get(SNAPSHOT_FILE);
+        Path tempPath = Paths.get(SNAPSHOT_FILE + ".tmp");
+        try {
+            ColumnarSnapshot.write(tempPath, cryptoList);
+            moveAtomically(tempPath, snapshotPath);
+        } catch (IOException e) {
+            // Snapshot yang gagal ditulis lebih lama dari CSV, jadi load berikutnya pakai CSV
+            System.err.println("✗ Snapshot save error: " + e.getMessage());
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Append hanya record harga yang berubah ke journal biner. Biaya tulis sebanding
+    // dengan jumlah tick; checkpoint CSV penuh hanya dilakukan sesekali.
+    // Record dibaca langsung dari kolom snapshot untuk baris di rows, tanpa view per koin
+    public synchronized boolean appendPriceTicks(CryptoRepository.Snapshot snapshot, BitSet rows) {
+        if (rows.isEmpty()) {
+            return true;
+        }
+
+        try {
+            FileChannel channel = openJournal();
+            journalBuffer.clear();
+
+            int written = 0;
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                byte[] id = snapshot.getId(row).getBytes(StandardCharsets.UTF_8);
+                if (id.length > MAX_ID_BYTES) {
+                    continue;
+                }
+                if (journalBuffer.remaining() < RECORD_FIXED_BYTES + id.length) {
+                    flushJournalBuffer(channel);
+                }
+                encodeTick(id, snapshot.getPrice(row), snapshot.getChange(row), snapshot.getPercent(row));
+                written++;
+            }
+            flushJournalBuffer(channel);
+            channel.force(false);
+
+            // Hanya record yang benar-benar ditulis; id terlalu panjang dilewati di atas
+            journalRecords += written;
+
+        } catch (IOException e) {
+            System.err.println("✗ Journal append error: " + e.getMessage());
+            return false;
+        }
+
+        // Checkpoint di-amortisasi: interval bertambah mengikuti jumlah simbol,
+        // jadi rata-rata biaya per tick tidak bergantung pada ukuran universe
+        int checkpointInterval = Math.max(CHECKPOINT_MIN_RECORDS,
+                snapshot.size() * CHECKPOINT_RECORDS_PER_SYMBOL);
+        if (journalRecords >= checkpointInterval) {
+            System.out.println("Journal has " + journalRecords + " records, writing checkpoint...");
+            return saveCryptocurrencies(snapshot.getCryptos());
+        }
+        return true;
+    }
+
+    private void encodeTick(byte[] id, double price, double change, double percent) {
+        int start = journalBuffer.position();
+        journalBuffer.put(RECORD_PRICE_TICK);
+        journalBuffer.putShort((short) id.length);
+        journalBuffer.put(id);
+        journalBuffer.putDouble(price);
+        journalBuffer.putDouble(change);
+        journalBuffer.putDouble(percent);
+        journalBuffer.putLong(System.currentTimeMillis());
+
+        crc.reset();
+        crc.update(journalBuffer.array(), start, journalBuffer.position() - start);
+        journalBuffer.putInt((int) crc.getValue());
+    }
+
+    private void flushJournalBuffer(FileChannel channel) throws IOException {
+        journalBuffer.flip();
+        while (journalBuffer.hasRemaining()) {
+            channel.write(journalBuffer);
+        }
+        journalBuffer.clear();
+    }
+
+    private FileChannel openJournal() throws IOException {
+        if (journalChannel == null || !journalChannel.isOpen()) {
+            journalChannel = FileChannel.open(Paths.get(JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return journalChannel;
+    }
+
+    private synchronized void truncateJournal() {
+        try {
+            FileChannel channel = openJournal();
+            channel.truncate(0);
+            channel.force(true);
+            journalRecords = 0;
+        } catch (IOException e) {
+            System.err.println("✗ Journal truncate error: " + e.getMessage());
+        }
+    }
+
+    // Terapkan tick dari journal ke data hasil load CSV. Record terakhir yang
+    // terpotong (crash saat append) dibuang dan journal dipotong di record valid terakhir.
+    private synchronized void replayJournal(ColumnarSnapshot.Columns columns) {
+        Path journalPath = Paths.get(JOURNAL_FILE);
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+
+        Map<String, Integer> rowById = new HashMap<>(columns.size() * 2);
+        for (int row = 0; row < columns.size(); row++) {
+            rowById.put(columns.ids[row], row);
+        }
+
+        int applied = 0;
+        int records = 0;
+        long validLength = 0;
+
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // baca sampai habis
+            }
+            buffer.flip();
+
+            while (buffer.remaining() >= RECORD_FIXED_BYTES) {
+                int start = buffer.position();
+                byte type = buffer.get();
+                int idLength = buffer.getShort() & 0xFFFF;
+                if (type != RECORD_PRICE_TICK || idLength > MAX_ID_BYTES
+                        || buffer.remaining() < idLength + RECORD_FIXED_BYTES - 3) {
+                    break;
+                }
+
+                byte[] id = new byte[idLength];
+                buffer.get(id);
+                double price = buffer.getDouble();
+                double change = buffer.getDouble();
+                double percent = buffer.getDouble();
+                buffer.getLong(); // timestamp, belum dipakai saat replay
+
+                crc.reset();
+                crc.update(buffer.array(), start, buffer.position() - start);
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    break;
+                }
+
+                records++;
+                validLength = buffer.position();
+
+                Integer row = rowById.get(new String(id, StandardCharsets.UTF_8));
+                if (row != null) {
+                    columns.prices.set(row, price, change, percent, columns.prices.getUpdatedNanos(row));
+                    applied++;
+                }
+            }
+
+            if (validLength < channel.size()) {
+                System.err.println("✗ Journal has a torn tail, discarding " +
+                        (channel.size() - validLength) + " bytes");
+                try (FileChannel writable = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                    writable.truncate(validLength);
+                }
+            }
+
+        } catch (IOException e) {
+            System.err.println("✗ Error replaying journal: " + e.getMessage());
+            return;
+        }
+
+        journalRecords = records;
+        System.out.println("✓ Replayed " + applied + " of " + records + " journal records");
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     private String escapeCSV(String value) {
         if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
             return "\"" + value.replace("\"", "\"\"") + "\"";
         }
         return value;
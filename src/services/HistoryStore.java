@@ -0,0 +1,651 @@
+package services;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+// Penyimpanan riwayat harga per simbol di disk. Setiap tick masuk ke blok Gorilla
+// yang masih terbuka di memori; blok ditutup tiap BLOCK_SPAN_MS dan di-append ke file
+// segmen harian milik simbol tersebut:
+//
+//   history/<SYMBOL>/<yyyyMMdd>.seg  ->  [startTime, endTime, count, length, bytes]*
+//
+// Jalur tick (record) hanya menulis ke memori. Thread history-writer, tiap WAL_FLUSH_MS:
+//   - meng-append blok yang sudah ditutup ke segmennya,
+//   - meng-append tick sejak putaran sebelumnya ke write-ahead log (history/open.wal),
+//   - sesekali menulis checkpoint semua blok terbuka (history/open.ckpt) lalu memulai
+//     WAL baru, supaya WAL tidak tumbuh tanpa batas.
+// Blok yang gagal ditulis dikembalikan ke antrean dan dicoba lagi putaran berikutnya;
+// selama masih ada yang gagal tidak ada checkpoint, jadi tick-nya tetap ada di WAL.
+// Saat start, checkpoint + WAL diputar ulang ke blok terbuka; titik yang sudah ada di
+// segmen dilewati. Proses yang mati mendadak kehilangan paling banyak WAL_FLUSH_MS tick.
+//
+// Query rentang hanya membaca segmen hari yang relevan dan melewati blok di luar rentang.
+// File dibaca tanpa memegang lock yang dipakai record(), jadi membuka chart tidak
+// menahan update harga.
+public class HistoryStore {
+    private static final String DEFAULT_DIRECTORY = "history";
+    private static final long BLOCK_SPAN_MS = 2L * 60 * 60 * 1000; // 2 jam, seperti Gorilla
+    private static final int MAX_POINTS_PER_BLOCK = 50000;
+    private static final long MAX_TIMESTAMP = 253402300799000L; // 9999-12-31
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String WAL_FILE = "open.wal";
+    private static final String CHECKPOINT_FILE = "open.ckpt";
+    private static final int WAL_MAGIC = 0x48574131;        // "HWA1"
+    private static final int CHECKPOINT_MAGIC = 0x48434B31; // "HCK1"
+    private static final int MAX_SYMBOL_BYTES = 1024;
+    private static final long WAL_FLUSH_MS = 1000;
+    private static final long CHECKPOINT_MS = 5 * 60 * 1000;
+    private static final long CHECKPOINT_WAL_BYTES = 32L * 1024 * 1024;
+
+    private final Path directory;
+
+    // Dijaga this: satu-satunya lock di jalur tick
+    private final Map<String, TimeSeriesBlock> openBlocks = new HashMap<>();
+    // Blok yang sudah ditutup tetapi belum tertulis ke segmen; tetap ikut di query
+    private final Map<String, List<TimeSeriesBlock>> unsavedBlocks = new HashMap<>();
+    private final List<String> sealedSymbols = new ArrayList<>();
+    private final List<TimeSeriesBlock> sealedBlocks = new ArrayList<>();
+    private TickBuffer pendingTicks = new TickBuffer();
+    private TickBuffer spareTicks = new TickBuffer();
+    private long pendingWalBytes;
+    private boolean checkpointRequested;
+
+    // Dijaga ioLock: hanya thread writer dan flush()
+    private final Object ioLock = new Object();
+    private FileChannel wal;
+    private long walSequence;
+    private long walBytes;
+    private long lastCheckpointAt;
+    // Panjang WAL lama yang valid hasil recover(); ekor terpotong dibuang saat WAL dibuka
+    private long recoveredWalLength = -1;
+    private ByteBuffer walBuffer = ByteBuffer.allocate(64 * 1024);
+
+    // Hasil query dalam array primitif
+    public static class Series {
+        private long[] timestamps = new long[64];
+        private double[] values = new double[64];
+        private int size = 0;
+
+        void add(long timestamp, double value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        public int size() { return size; }
+        public long getTimestamp(int i) { return timestamps[i]; }
+        public double getValue(int i) { return values[i]; }
+    }
+
+    // Tick yang belum masuk WAL; dua buffer bergantian supaya jalur tick tidak mengalokasi
+    private static class TickBuffer {
+        String[] symbols = new String[1024];
+        long[] times = new long[1024];
+        double[] prices = new double[1024];
+        int size;
+
+        void add(String symbol, long time, double price) {
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            symbols[size] = symbol;
+            times[size] = time;
+            prices[size] = price;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(symbols, 0, size, null);
+            size = 0;
+        }
+    }
+
+    public HistoryStore() {
+        this(Paths.get(DEFAULT_DIRECTORY));
+    }
+
+    public HistoryStore(Path directory) {
+        this.directory = directory;
+        recover();
+        Thread writer = new Thread(this::runWriter, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Jalur tick: hanya memori, tanpa I/O
+    public synchronized void record(String symbol, long timestamp, double price) {
+        append(symbol, timestamp, price);
+        pendingTicks.add(symbol, timestamp, price);
+        pendingWalBytes += 2 + symbol.length() + 16;
+    }
+
+    private void append(String symbol, long timestamp, double price) {
+        TimeSeriesBlock block = openBlocks.get(symbol);
+
+        if (block != null && (timestamp < block.getEndTime()
+                || blockStart(timestamp) != blockStart(block.getStartTime())
+                || block.getCount() >= MAX_POINTS_PER_BLOCK)) {
+            seal(symbol, block);
+            block = null;
+        }
+
+        if (block == null) {
+            block = new TimeSeriesBlock(timestamp);
+            openBlocks.put(symbol, block);
+        }
+        block.append(timestamp, price);
+    }
+
+    // Dipanggil di bawah this; blok diserahkan ke thread writer
+    private void seal(String symbol, TimeSeriesBlock block) {
+        if (block.getCount() == 0) {
+            return;
+        }
+        sealedSymbols.add(symbol);
+        sealedBlocks.add(block);
+        unsavedBlocks.computeIfAbsent(symbol, key -> new ArrayList<>(2)).add(block);
+    }
+
+    // Semua titik milik simbol pada rentang [from, to], terurut waktu
+    public Series query(String symbol, long from, long to) {
+        Series series = new Series();
+
+        // Ambil blok di memori dulu (lock singkat), baru baca file tanpa lock
+        List<TimeSeriesBlock> unsaved;
+        byte[] openBytes = null;
+        int openCount = 0;
+        synchronized (this) {
+            List<TimeSeriesBlock> blocks = unsavedBlocks.get(symbol);
+            unsaved = blocks == null ? Collections.emptyList() : new ArrayList<>(blocks);
+            TimeSeriesBlock open = openBlocks.get(symbol);
+            if (open != null && open.getEndTime() >= from && open.getStartTime() <= to) {
+                openBytes = open.toBytes();
+                openCount = open.getCount();
+            }
+        }
+
+        Path symbolDir = directory.resolve(fileName(symbol));
+        if (Files.isDirectory(symbolDir)) {
+            // Nama segmen yyyyMMdd terurut secara leksikal sama dengan urutan waktu
+            String firstDay = toDay(from).format(DAY_FORMAT);
+            String lastDay = toDay(to).format(DAY_FORMAT);
+            String[] segments = symbolDir.toFile().list((dir, name) -> name.endsWith(".seg"));
+            if (segments != null) {
+                Arrays.sort(segments);
+                for (String segment : segments) {
+                    String day = segment.substring(0, segment.length() - 4);
+                    if (day.compareTo(firstDay) >= 0 && day.compareTo(lastDay) <= 0) {
+                        readSegment(symbolDir.resolve(segment), from, to, unsaved, series);
+                    }
+                }
+            }
+        }
+
+        // Blok tertutup tidak berubah lagi, aman di-decode di luar lock
+        for (TimeSeriesBlock block : unsaved) {
+            if (block.getEndTime() >= from && block.getStartTime() <= to) {
+                TimeSeriesBlock.decode(block.toBytes(), block.getCount(), from, to, series::add);
+            }
+        }
+        if (openBytes != null) {
+            TimeSeriesBlock.decode(openBytes, openCount, from, to, series::add);
+        }
+        return series;
+    }
+
+    // Tutup semua blok terbuka dan tulis ke disk sekarang (dipanggil saat aplikasi ditutup)
+    public void flush() {
+        persist(true);
+    }
+
+    private void runWriter() {
+        while (true) {
+            try {
+                Thread.sleep(WAL_FLUSH_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            persist(false);
+        }
+    }
+
+    // Satu putaran writer. sealAll: semua blok terbuka ditutup, sehingga setelah ditulis
+    // ke segmen WAL dan checkpoint tidak diperlukan lagi.
+    private void persist(boolean sealAll) {
+        synchronized (ioLock) {
+            TickBuffer ticks;
+            List<String> symbols;
+            List<TimeSeriesBlock> blocks;
+            List<String> openSymbols = null;
+            List<byte[]> openBytes = null;
+            int[] openCounts = null;
+            long now = System.currentTimeMillis();
+            boolean checkpoint;
+
+            synchronized (this) {
+                if (sealAll) {
+                    for (Map.Entry<String, TimeSeriesBlock> entry : openBlocks.entrySet()) {
+                        seal(entry.getKey(), entry.getValue());
+                    }
+                    openBlocks.clear();
+                }
+                ticks = pendingTicks;
+                pendingTicks = spareTicks;
+                spareTicks = ticks;
+                long tickBytes = pendingWalBytes;
+                pendingWalBytes = 0;
+
+                symbols = new ArrayList<>(sealedSymbols);
+                blocks = new ArrayList<>(sealedBlocks);
+                sealedSymbols.clear();
+                sealedBlocks.clear();
+
+                // Checkpoint memotret blok terbuka bersamaan dengan pertukaran buffer tick,
+                // jadi tick di buffer ini sudah tercakup dan tidak perlu masuk WAL
+                checkpoint = !sealAll && (checkpointRequested || walBytes + tickBytes >= CHECKPOINT_WAL_BYTES
+                        || (now - lastCheckpointAt >= CHECKPOINT_MS && walBytes + tickBytes > 0));
+                if (checkpoint) {
+                    checkpointRequested = false;
+                    openSymbols = new ArrayList<>(openBlocks.keySet());
+                    openBytes = new ArrayList<>(openSymbols.size());
+                    openCounts = new int[openSymbols.size()];
+                    for (int i = 0; i < openSymbols.size(); i++) {
+                        TimeSeriesBlock block = openBlocks.get(openSymbols.get(i));
+                        openBytes.add(block.toBytes());
+                        openCounts[i] = block.getCount();
+                    }
+                }
+            }
+
+            try {
+                boolean allWritten = writeSealed(symbols, blocks);
+                if (sealAll && allWritten) {
+                    closeWal();
+                    walSequence = 0;
+                    recoveredWalLength = -1;
+                    Files.deleteIfExists(directory.resolve(WAL_FILE));
+                    Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+                } else if (checkpoint && allWritten) {
+                    writeCheckpoint(openSymbols, openBytes, openCounts);
+                    lastCheckpointAt = now;
+                } else {
+                    // Checkpoint hanya memuat blok terbuka: selama ada blok tertutup yang belum
+                    // di segmen, WAL lama tidak boleh dibuang dan tick ini harus masuk WAL
+                    if (checkpoint) {
+                        synchronized (this) {
+                            checkpointRequested = true;
+                        }
+                    }
+                    if (ticks.size > 0) {
+                        appendWal(ticks);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("✗ Error writing history: " + e.getMessage());
+            } finally {
+                ticks.clear();
+            }
+        }
+    }
+
+    // false bila ada blok yang gagal ditulis. Blok itu (dan blok sesudahnya untuk simbol yang
+    // sama, supaya urutan di segmen tetap) kembali ke depan antrean sealed untuk dicoba lagi;
+    // sementara itu tetap ikut query lewat unsaved dan tick-nya tetap di checkpoint/WAL.
+    private boolean writeSealed(List<String> symbols, List<TimeSeriesBlock> blocks) {
+        List<String> retrySymbols = new ArrayList<>();
+        List<TimeSeriesBlock> retryBlocks = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            String symbol = symbols.get(i);
+            TimeSeriesBlock block = blocks.get(i);
+            if (failed.contains(symbol) || !writeBlock(symbol, block)) {
+                failed.add(symbol);
+                retrySymbols.add(symbol);
+                retryBlocks.add(block);
+                continue;
+            }
+            synchronized (this) {
+                List<TimeSeriesBlock> unsaved = unsavedBlocks.get(symbol);
+                if (unsaved != null) {
+                    unsaved.remove(block);
+                    if (unsaved.isEmpty()) {
+                        unsavedBlocks.remove(symbol);
+                    }
+                }
+            }
+        }
+        if (retryBlocks.isEmpty()) {
+            return true;
+        }
+        synchronized (this) {
+            sealedSymbols.addAll(0, retrySymbols);
+            sealedBlocks.addAll(0, retryBlocks);
+        }
+        return false;
+    }
+
+    private boolean writeBlock(String symbol, TimeSeriesBlock block) {
+        try {
+            Path symbolDir = directory.resolve(fileName(symbol));
+            Files.createDirectories(symbolDir);
+            Path segment = symbolDir.resolve(toDay(block.getStartTime()).format(DAY_FORMAT) + ".seg");
+
+            byte[] data = block.toBytes();
+            ByteBuffer record = ByteBuffer.allocate(24 + data.length);
+            record.putLong(block.getStartTime()).putLong(block.getEndTime())
+                    .putInt(block.getCount()).putInt(data.length).put(data);
+            record.flip();
+            // Satu record utuh atau tidak sama sekali: bila gagal di tengah, file dipotong
+            // kembali ke panjang semula supaya record berikutnya tidak ikut rusak
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long start = channel.size();
+                try {
+                    channel.position(start);
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                    // Harus sudah di disk sebelum checkpoint berikutnya membuang WAL
+                    channel.force(false);
+                } catch (IOException e) {
+                    channel.truncate(start);
+                    throw e;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error writing history for " + symbol + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ===== Write-ahead log dan checkpoint blok terbuka =====
+    //
+    //   open.ckpt : [magic, sequence, blockCount] lalu per blok [symbol, count, length, bytes]
+    //   open.wal  : [magic, sequence] lalu per tick [symbol, timestamp, price]
+    //
+    // WAL hanya berlaku bila sequence-nya sama dengan checkpoint yang ada.
+
+    private void appendWal(TickBuffer ticks) throws IOException {
+        FileChannel channel = openWal();
+        walBuffer.clear();
+        for (int i = 0; i < ticks.size; i++) {
+            byte[] symbol = ticks.symbols[i].getBytes(StandardCharsets.UTF_8);
+            if (symbol.length > MAX_SYMBOL_BYTES) {
+                continue;
+            }
+            if (walBuffer.remaining() < 2 + symbol.length + 16) {
+                drain(channel, walBuffer);
+            }
+            walBuffer.putShort((short) symbol.length).put(symbol)
+                    .putLong(ticks.times[i]).putDouble(ticks.prices[i]);
+        }
+        walBytes += drain(channel, walBuffer);
+        channel.force(false);
+    }
+
+    private FileChannel openWal() throws IOException {
+        if (wal == null) {
+            Files.createDirectories(directory);
+            Path path = directory.resolve(WAL_FILE);
+            wal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (recoveredWalLength >= 0 && wal.size() > recoveredWalLength) {
+                wal.truncate(recoveredWalLength);
+            }
+            recoveredWalLength = -1;
+            if (wal.size() < 12) {
+                wal.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(12).putInt(WAL_MAGIC).putLong(walSequence);
+                header.flip();
+                wal.write(header, 0);
+            }
+            wal.position(wal.size());
+            walBytes = wal.size();
+        }
+        return wal;
+    }
+
+    private void closeWal() throws IOException {
+        if (wal != null) {
+            wal.close();
+            wal = null;
+        }
+        walBytes = 0;
+    }
+
+    // Checkpoint ditulis atomik (tmp + rename), lalu WAL dimulai ulang dengan sequence baru
+    private void writeCheckpoint(List<String> symbols, List<byte[]> blocks, int[] counts) throws IOException {
+        Files.createDirectories(directory);
+        long sequence = walSequence + 1;
+        Path target = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                byte[] data = blocks.get(i);
+                out.writeUTF(symbols.get(i));
+                out.writeInt(counts[i]);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        closeWal();
+        walSequence = sequence;
+        try (FileChannel channel = FileChannel.open(directory.resolve(WAL_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(12).putInt(WAL_MAGIC).putLong(sequence);
+            header.flip();
+            channel.write(header);
+            channel.force(true);
+        }
+    }
+
+    private static long drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    // Putar ulang checkpoint + WAL dari sesi sebelumnya ke blok terbuka
+    private void recover() {
+        Map<String, Series> recovered = new LinkedHashMap<>();
+        long sequence = 0;
+
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+                if (in.readInt() != CHECKPOINT_MAGIC) {
+                    throw new IOException("bad magic");
+                }
+                sequence = in.readLong();
+                int blocks = in.readInt();
+                for (int i = 0; i < blocks; i++) {
+                    String symbol = in.readUTF();
+                    int count = in.readInt();
+                    int length = in.readInt();
+                    if (count < 0 || length < 0 || length > 64 * MAX_POINTS_PER_BLOCK) {
+                        throw new IOException("corrupt block");
+                    }
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    Series series = recovered.computeIfAbsent(symbol, key -> new Series());
+                    TimeSeriesBlock.decode(data, count, Long.MIN_VALUE, Long.MAX_VALUE, series::add);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("✗ History checkpoint unreadable: " + e.getMessage());
+                recovered.clear();
+                sequence = -1;
+                try {
+                    // WAL baru nanti memakai sequence 0, yang hanya berlaku tanpa checkpoint
+                    Files.deleteIfExists(checkpoint);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        Path walPath = directory.resolve(WAL_FILE);
+        recoveredWalLength = 0; // WAL lama tidak dipakai kecuali terbaca di bawah
+        if (sequence >= 0 && Files.exists(walPath)) {
+            try {
+                ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(walPath));
+                if (in.remaining() >= 12 && in.getInt() == WAL_MAGIC && in.getLong() == sequence) {
+                    recoveredWalLength = in.position();
+                    while (in.remaining() >= 2) {
+                        int length = in.getShort() & 0xFFFF;
+                        if (length > MAX_SYMBOL_BYTES || in.remaining() < length + 16) {
+                            break; // ekor WAL terpotong
+                        }
+                        byte[] symbol = new byte[length];
+                        in.get(symbol);
+                        recovered.computeIfAbsent(new String(symbol, StandardCharsets.UTF_8), key -> new Series())
+                                .add(in.getLong(), in.getDouble());
+                        recoveredWalLength = in.position();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("✗ History WAL unreadable: " + e.getMessage());
+            }
+        }
+
+        int points = 0;
+        for (Map.Entry<String, Series> entry : recovered.entrySet()) {
+            String symbol = entry.getKey();
+            Series series = entry.getValue();
+            // Titik yang sudah ada di segmen (blok yang sempat ditulis) dilewati
+            long persisted = lastPersistedTime(symbol);
+            for (int i = 0; i < series.size(); i++) {
+                if (series.getTimestamp(i) > persisted) {
+                    append(symbol, series.getTimestamp(i), series.getValue(i));
+                    points++;
+                }
+            }
+        }
+        walSequence = Math.max(sequence, 0);
+        lastCheckpointAt = System.currentTimeMillis();
+        if (points > 0) {
+            System.out.println("✓ Recovered " + points + " history points for " + recovered.size() + " symbols");
+        }
+        // Checkpoint pada putaran writer pertama: WAL lama (mungkin dengan ekor terpotong)
+        // diganti, bukan di-append
+        checkpointRequested = Files.exists(checkpoint) || Files.exists(walPath);
+    }
+
+    // endTime blok terakhir simbol di segmen, Long.MIN_VALUE bila belum ada
+    private long lastPersistedTime(String symbol) {
+        Path symbolDir = directory.resolve(fileName(symbol));
+        String[] segments = symbolDir.toFile().list((dir, name) -> name.endsWith(".seg"));
+        if (segments == null || segments.length == 0) {
+            return Long.MIN_VALUE;
+        }
+        Arrays.sort(segments);
+        long last = Long.MIN_VALUE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(symbolDir.resolve(segments[segments.length - 1]))))) {
+            while (true) {
+                in.readLong();
+                last = Math.max(last, in.readLong());
+                in.readInt();
+                skipFully(in, in.readInt());
+            }
+        } catch (IOException e) {
+            return last; // EOF
+        }
+    }
+
+    // Blok segmen yang sama dengan salah satu blok unsaved (baru saja ditulis writer) dilewati
+    private void readSegment(Path segment, long from, long to, List<TimeSeriesBlock> unsaved, Series series) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                long startTime;
+                try {
+                    startTime = in.readLong();
+                } catch (EOFException e) {
+                    return;
+                }
+                long endTime = in.readLong();
+                int count = in.readInt();
+                int length = in.readInt();
+
+                if (endTime < from || startTime > to || isUnsaved(unsaved, startTime, endTime, count)) {
+                    skipFully(in, length);
+                    continue;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                TimeSeriesBlock.decode(data, count, from, to, series::add);
+            }
+        } catch (EOFException e) {
+            // Blok terakhir bisa saja sedang di-append writer; isinya masih ada di unsaved
+        } catch (IOException e) {
+            System.err.println("✗ Error reading history: " + e.getMessage());
+        }
+    }
+
+    private static boolean isUnsaved(List<TimeSeriesBlock> unsaved, long startTime, long endTime, int count) {
+        for (TimeSeriesBlock block : unsaved) {
+            if (block.getStartTime() == startTime && block.getEndTime() == endTime && block.getCount() == count) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        while (length > 0) {
+            int skipped = (int) in.skip(length);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            length -= skipped;
+        }
+    }
+
+    private static long blockStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, BLOCK_SPAN_MS);
+    }
+
+    private static LocalDate toDay(long timestamp) {
+        // Dibatasi supaya query "semua waktu" tetap menghasilkan tanggal yang valid
+        long clamped = Math.max(0, Math.min(timestamp, MAX_TIMESTAMP));
+        return Instant.ofEpochMilli(clamped).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    // Simbol dipakai sebagai nama folder, karakter selain huruf/angka diganti
+    private static String fileName(String symbol) {
+        StringBuilder name = new StringBuilder(symbol.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '-' ? c : '_');
+        }
+        return name.toString();
+    }
+}
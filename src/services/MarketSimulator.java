@@ -0,0 +1,198 @@
+package services;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Mesin simulasi pasar: setiap simbol mengikuti geometric Brownian motion yang
+// berkorelasi lewat satu faktor pasar bersama:
+//
+//   Z_i = beta_i * Z_pasar + sqrt(1 - beta_i^2) * eps_i
+//   S_i <- S_i * exp((mu_i - sigma_i^2 / 2) * dt + sigma_i * sqrt(dt) * Z_i)
+//
+// Semua angka acak berasal dari SplittableRandom dengan seed, jadi seed dan jumlah
+// tick yang sama selalu menghasilkan deret harga yang sama. Mode push (start) membuat
+// tick round-robin ke semua simbol dengan laju tetap untuk uji beban pipeline.
+public class MarketSimulator {
+    private static final double SECONDS_PER_YEAR = 365.0 * 24 * 60 * 60;
+    private static final long BATCH_INTERVAL_MS = 10;
+    private static final int MAX_BATCH = 1 << 16;
+
+    // Tick dikirim per batch; array dipakai ulang, listener harus menyalin bila perlu
+    public interface TickListener {
+        void onTicks(int[] handles, double[] prices, int count);
+    }
+
+    private final SplittableRandom random;
+    private final double timeScale;
+
+    // Kolom per simbol, indeks = handle
+    private double[] prices = new double[16];
+    private double[] drifts = new double[16];
+    private double[] volatilities = new double[16];
+    private double[] betas = new double[16];
+    private int symbolCount = 0;
+
+    // Status mode round-robin
+    private int cursor = 0;
+    private double marketShock;
+    private double nextGaussian;
+    private boolean hasNextGaussian = false;
+
+    private Thread thread;
+    private volatile boolean running = false;
+    private volatile long tickCount = 0;
+
+    // timeScale = detik simulasi per detik waktu nyata (1 = real-time)
+    public MarketSimulator(long seed, double timeScale) {
+        this.random = new SplittableRandom(seed);
+        this.timeScale = timeScale;
+    }
+
+    // drift dan volatility dalam satuan per tahun; beta = korelasi ke faktor pasar (0..1)
+    public synchronized int addSymbol(double initialPrice, double drift, double volatility, double beta) {
+        if (symbolCount == prices.length) {
+            int capacity = symbolCount * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            drifts = Arrays.copyOf(drifts, capacity);
+            volatilities = Arrays.copyOf(volatilities, capacity);
+            betas = Arrays.copyOf(betas, capacity);
+        }
+        prices[symbolCount] = initialPrice;
+        drifts[symbolCount] = drift;
+        volatilities[symbolCount] = volatility;
+        betas[symbolCount] = Math.max(0, Math.min(1, beta));
+        return symbolCount++;
+    }
+
+    public synchronized int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public synchronized double getPrice(int handle) {
+        return prices[handle];
+    }
+
+    // Satu langkah berkorelasi untuk handle yang diminta (satu faktor pasar bersama)
+    public synchronized void step(int[] handles, double wallSeconds, double[] out) {
+        double dt = wallSeconds * timeScale / SECONDS_PER_YEAR;
+        double sqrtDt = Math.sqrt(dt);
+        double market = gaussian();
+        for (int i = 0; i < handles.length; i++) {
+            out[i] = advance(handles[i], dt, sqrtDt, market);
+        }
+    }
+
+    // Buat count tick round-robin seperti pada laju ticksPerSecond. Faktor pasar diundi
+    // sekali per putaran penuh, jadi hasilnya tidak bergantung pada ukuran batch.
+    public synchronized int generate(int count, double ticksPerSecond, int[] handles, double[] out) {
+        if (symbolCount == 0) {
+            return 0;
+        }
+        double dt = symbolCount / ticksPerSecond * timeScale / SECONDS_PER_YEAR;
+        double sqrtDt = Math.sqrt(dt);
+        for (int i = 0; i < count; i++) {
+            if (cursor == 0) {
+                marketShock = gaussian();
+            }
+            handles[i] = cursor;
+            out[i] = advance(cursor, dt, sqrtDt, marketShock);
+            cursor = cursor + 1 == symbolCount ? 0 : cursor + 1;
+        }
+        return count;
+    }
+
+    private double advance(int h, double dt, double sqrtDt, double market) {
+        double sigma = volatilities[h];
+        double beta = betas[h];
+        double z = beta * market + Math.sqrt(1 - beta * beta) * gaussian();
+        double price = prices[h] * Math.exp((drifts[h] - 0.5 * sigma * sigma) * dt + sigma * sqrtDt * z);
+        prices[h] = price;
+        return price;
+    }
+
+    // Marsaglia polar method; SplittableRandom di Java 11 belum punya nextGaussian
+    private double gaussian() {
+        if (hasNextGaussian) {
+            hasNextGaussian = false;
+            return nextGaussian;
+        }
+        double u, v, s;
+        do {
+            u = random.nextDouble() * 2 - 1;
+            v = random.nextDouble() * 2 - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        nextGaussian = v * scale;
+        hasNextGaussian = true;
+        return u * scale;
+    }
+
+    // ===== Mode push =====
+
+    public synchronized void start(double ticksPerSecond, TickListener listener) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> runLoop(ticksPerSecond, listener), "market-simulator");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("✓ Market simulator started at " + (long) ticksPerSecond + " ticks/s");
+    }
+
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    private void runLoop(double ticksPerSecond, TickListener listener) {
+        int[] handles = new int[1024];
+        double[] out = new double[1024];
+        long startedAt = System.nanoTime();
+        long emitted = 0;
+
+        while (running) {
+            // Jumlah tick yang seharusnya sudah terkirim sejak start
+            long due = (long) ((System.nanoTime() - startedAt) / 1e9 * ticksPerSecond) - emitted;
+            if (due > 0) {
+                int count = (int) Math.min(due, MAX_BATCH);
+                if (count > handles.length) {
+                    handles = new int[Math.max(count, handles.length * 2)];
+                    out = new double[handles.length];
+                }
+                count = generate(count, ticksPerSecond, handles, out);
+                if (count > 0) {
+                    emitted += count;
+                    tickCount += count;
+                    try {
+                        listener.onTicks(handles, out, count);
+                    } catch (Exception e) {
+                        System.err.println("✗ Tick listener error: " + e.getMessage());
+                    }
+                    continue;
+                }
+                // Belum ada simbol; jangan menumpuk hutang tick
+                startedAt = System.nanoTime();
+                emitted = 0;
+            }
+            try {
+                Thread.sleep(BATCH_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package services;
+
+import java.util.*;
+
+// Agregasi OHLC + volume yang diperbarui setiap tick untuk semua timeframe sekaligus.
+// Setiap simbol punya satu ring bucket per timeframe; tick baru hanya menyentuh bucket
+// terakhir di tiap ring, jadi ganti timeframe di chart cukup membaca ring (O(bucket))
+// tanpa memindai tick mentah. Volume = jumlah tick di bucket (tidak ada data volume asli).
+//
+// Rollup dibangun dari tick live; saat pertama kali dibaca, riwayat sebelum tick live
+// pertama diambil dari HistoryStore lalu digabung di depannya.
+public class OhlcRollups {
+    private static final int MAX_BUCKETS = 500;
+    private static final int INITIAL_BUCKETS = 16;
+    private static final long BACKFILL_WINDOW_MS = 30L * 24 * 60 * 60 * 1000; // 30 hari
+
+    public enum Timeframe {
+        MINUTE_1("1 Minute", 60_000L),
+        MINUTE_5("5 Minutes", 5 * 60_000L),
+        MINUTE_15("15 Minutes", 15 * 60_000L),
+        HOUR_1("1 Hour", 60 * 60_000L),
+        DAY_1("1 Day", 24 * 60 * 60_000L);
+
+        private final String label;
+        private final long millis;
+
+        Timeframe(String label, long millis) {
+            this.label = label;
+            this.millis = millis;
+        }
+
+        public String getLabel() { return label; }
+        public long getMillis() { return millis; }
+
+        public static Timeframe fromLabel(String label) {
+            for (Timeframe timeframe : values()) {
+                if (timeframe.label.equals(label)) {
+                    return timeframe;
+                }
+            }
+            return MINUTE_1;
+        }
+    }
+
+    // Salinan bucket satu timeframe, urut dari yang paling lama
+    public static class Candles {
+        public static final Candles EMPTY = new Candles(0);
+
+        private final long[] times;
+        private final double[] open;
+        private final double[] high;
+        private final double[] low;
+        private final double[] close;
+        private final long[] volume;
+
+        Candles(int size) {
+            times = new long[size];
+            open = new double[size];
+            high = new double[size];
+            low = new double[size];
+            close = new double[size];
+            volume = new long[size];
+        }
+
+        public int size() { return times.length; }
+        public long getTime(int i) { return times[i]; }
+        public double getOpen(int i) { return open[i]; }
+        public double getHigh(int i) { return high[i]; }
+        public double getLow(int i) { return low[i]; }
+        public double getClose(int i) { return close[i]; }
+        public long getVolume(int i) { return volume[i]; }
+    }
+
+    private final HistoryStore history;
+    private final Map<String, SymbolRollups> symbols = new HashMap<>();
+
+    public OhlcRollups(HistoryStore history) {
+        this.history = history;
+    }
+
+    public synchronized void record(String symbol, long timestamp, double price) {
+        SymbolRollups rollups = symbols.get(symbol);
+        if (rollups == null) {
+            rollups = new SymbolRollups(timestamp);
+            symbols.put(symbol, rollups);
+        }
+        rollups.add(timestamp, price);
+    }
+
+    public Candles getCandles(String symbol, Timeframe timeframe) {
+        backfill(symbol);
+        synchronized (this) {
+            SymbolRollups rollups = symbols.get(symbol);
+            return rollups == null ? Candles.EMPTY : rollups.rings[timeframe.ordinal()].read();
+        }
+    }
+
+    // Isi rollup dari riwayat di disk sekali per simbol. Query disk berjalan di luar lock
+    // supaya tick live tidak tertahan; hanya titik sebelum tick live pertama yang dibaca.
+    private void backfill(String symbol) {
+        long until;
+        synchronized (this) {
+            SymbolRollups live = symbols.get(symbol);
+            if (live != null && live.backfilled) {
+                return;
+            }
+            until = live == null ? System.currentTimeMillis() : live.liveSince;
+        }
+
+        HistoryStore.Series series = history.query(symbol, until - BACKFILL_WINDOW_MS, until - 1);
+        SymbolRollups loaded = new SymbolRollups(until);
+        for (int i = 0; i < series.size(); i++) {
+            loaded.add(series.getTimestamp(i), series.getValue(i));
+        }
+        loaded.backfilled = true;
+
+        synchronized (this) {
+            SymbolRollups live = symbols.get(symbol);
+            if (live != null && live.backfilled) {
+                return;
+            }
+            if (live != null) {
+                loaded.mergeNewer(live);
+            }
+            symbols.put(symbol, loaded);
+        }
+    }
+
+    private static class SymbolRollups {
+        final long liveSince;
+        final Ring[] rings;
+        boolean backfilled;
+
+        SymbolRollups(long liveSince) {
+            this.liveSince = liveSince;
+            Timeframe[] timeframes = Timeframe.values();
+            rings = new Ring[timeframes.length];
+            for (int i = 0; i < timeframes.length; i++) {
+                rings[i] = new Ring(timeframes[i].millis);
+            }
+        }
+
+        void add(long timestamp, double price) {
+            for (Ring ring : rings) {
+                ring.merge(ring.bucketStart(timestamp), price, price, price, price, 1);
+            }
+        }
+
+        // Gabungkan bucket dari rollup lain yang datanya lebih baru
+        void mergeNewer(SymbolRollups newer) {
+            for (int r = 0; r < rings.length; r++) {
+                Ring source = newer.rings[r];
+                for (int n = 0; n < source.size; n++) {
+                    int i = source.index(n);
+                    rings[r].merge(source.start[i], source.open[i], source.high[i],
+                            source.low[i], source.close[i], source.volume[i]);
+                }
+            }
+        }
+    }
+
+    // Ring bucket dengan array primitif; tumbuh sampai MAX_BUCKETS lalu menimpa yang terlama
+    private static class Ring {
+        final long span;
+        long[] start = new long[INITIAL_BUCKETS];
+        double[] open = new double[INITIAL_BUCKETS];
+        double[] high = new double[INITIAL_BUCKETS];
+        double[] low = new double[INITIAL_BUCKETS];
+        double[] close = new double[INITIAL_BUCKETS];
+        long[] volume = new long[INITIAL_BUCKETS];
+        int head = -1;
+        int size = 0;
+
+        Ring(long span) {
+            this.span = span;
+        }
+
+        long bucketStart(long timestamp) {
+            return timestamp - Math.floorMod(timestamp, span);
+        }
+
+        // Indeks array untuk bucket ke-n (0 = terlama)
+        int index(int n) {
+            return Math.floorMod(head - size + 1 + n, start.length);
+        }
+
+        void merge(long bucket, double o, double h, double l, double c, long v) {
+            if (size == 0 || bucket > start[head]) {
+                advance();
+                start[head] = bucket;
+                open[head] = o;
+                high[head] = h;
+                low[head] = l;
+                close[head] = c;
+                volume[head] = v;
+                return;
+            }
+
+            int i = head;
+            if (bucket != start[head]) {
+                // Tick terlambat: cari bucket lamanya, close tidak diubah
+                i = -1;
+                for (int n = size - 2; n >= 0; n--) {
+                    int candidate = index(n);
+                    if (start[candidate] == bucket) {
+                        i = candidate;
+                        break;
+                    }
+                    if (start[candidate] < bucket) {
+                        break;
+                    }
+                }
+                if (i < 0) {
+                    return;
+                }
+            } else {
+                close[i] = c;
+            }
+            high[i] = Math.max(high[i], h);
+            low[i] = Math.min(low[i], l);
+            volume[i] += v;
+        }
+
+        private void advance() {
+            if (size == start.length && size < MAX_BUCKETS) {
+                // Belum pernah wrap selama masih tumbuh, jadi urutan tetap terjaga
+                int capacity = Math.min(size * 2, MAX_BUCKETS);
+                start = Arrays.copyOf(start, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+            head = (head + 1) % start.length;
+            if (size < start.length) {
+                size++;
+            }
+        }
+
+        Candles read() {
+            Candles candles = new Candles(size);
+            for (int n = 0; n < size; n++) {
+                int i = index(n);
+                candles.times[n] = start[i];
+                candles.open[n] = open[i];
+                candles.high[n] = high[i];
+                candles.low[n] = low[i];
+                candles.close[n] = close[i];
+                candles.volume[n] = volume[i];
+            }
+            return candles;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package services;
+
+import models.Cryptocurrency;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Loader CSV paralel untuk file besar. File di-mmap, dipotong di batas newline yang
+// tidak berada di dalam field berkutip, lalu tiap potongan di-parse di ForkJoinPool.
+// Hasil digabung sesuai urutan file, jadi sama dengan jalur sekuensial.
+public class ParallelCsvLoader {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+    private static final int SCAN_BLOCK_BYTES = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private long rowCount;
+    private long bytesRead;
+
+    public ParallelCsvLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelCsvLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public List<Cryptocurrency> load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = splitAtRowBoundaries(channel, size);
+
+            try {
+                ChunkResult result = pool.invoke(new ParseTask(channel, boundaries, 0, boundaries.length - 1));
+                rowCount = result.rows;
+                bytesRead = size;
+                return result.cryptos;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // Batas potongan: posisi awal tiap baris. Posisi mentah dibagi rata, lalu paritas
+    // jumlah tanda kutip sebelum tiap posisi menentukan apakah posisi itu di dalam kutip.
+    private long[] splitAtRowBoundaries(FileChannel channel, long size) throws IOException {
+        int chunks = (int) Math.max(pool.getParallelism() * CHUNKS_PER_THREAD,
+                (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        chunks = (int) Math.max(1, Math.min(chunks, size / SCAN_BLOCK_BYTES));
+
+        long[] rawStarts = new long[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            rawStarts[i] = size * i / chunks;
+        }
+
+        // Jumlah kutip per potongan mentah, dihitung paralel
+        long[] quoteCounts;
+        try {
+            quoteCounts = pool.invoke(new QuoteCountTask(channel, rawStarts, 0, chunks));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long quotesBefore = 0;
+        for (int i = 1; i < chunks; i++) {
+            quotesBefore += quoteCounts[i - 1];
+            boolean inQuotes = (quotesBefore & 1) == 1;
+            long rowStart = nextRowStart(channel, rawStarts[i], size, inQuotes);
+            if (rowStart > boundaries.get(boundaries.size() - 1) && rowStart < size) {
+                boundaries.add(rowStart);
+            }
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    // Posisi setelah newline pertama di luar kutip, mulai dari 'from'
+    private static long nextRowStart(FileChannel channel, long from, long size, boolean inQuotes) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(SCAN_BLOCK_BYTES, size - position);
+            MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                byte b = block.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    private static class QuoteCountTask extends RecursiveTask<long[]> {
+        private final FileChannel channel;
+        private final long[] starts;
+        private final int from;
+        private final int to;
+
+        QuoteCountTask(FileChannel channel, long[] starts, int from, int to) {
+            this.channel = channel;
+            this.starts = starts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                QuoteCountTask left = new QuoteCountTask(channel, starts, from, middle);
+                left.fork();
+                long[] right = new QuoteCountTask(channel, starts, middle, to).compute();
+                long[] counts = left.join();
+                for (int i = middle; i < to; i++) {
+                    counts[i] = right[i];
+                }
+                return counts;
+            }
+
+            long[] counts = new long[starts.length];
+            try {
+                long length = starts[to] - starts[from];
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, starts[from], length);
+                long quotes = 0;
+                for (int i = 0; i < length; i++) {
+                    if (region.get(i) == '"') quotes++;
+                }
+                counts[from] = quotes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return counts;
+        }
+    }
+
+    private static class ChunkResult {
+        final List<Cryptocurrency> cryptos;
+        long rows;
+
+        ChunkResult(List<Cryptocurrency> cryptos, long rows) {
+            this.cryptos = cryptos;
+            this.rows = rows;
+        }
+    }
+
+    private static class ParseTask extends RecursiveTask<ChunkResult> {
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel channel, long[] boundaries, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ParseTask left = new ParseTask(channel, boundaries, from, middle);
+                left.fork();
+                ChunkResult right = new ParseTask(channel, boundaries, middle, to).compute();
+                ChunkResult result = left.join();
+                // Gabung sesuai urutan file: kiri dulu, lalu kanan
+                result.cryptos.addAll(right.cryptos);
+                result.rows += right.rows;
+                return result;
+            }
+            return parseChunk();
+        }
+
+        private ChunkResult parseChunk() {
+            long start = boundaries[from];
+            long length = boundaries[to] - start;
+            List<Cryptocurrency> cryptos = new ArrayList<>((int) Math.min(length / 48 + 16, 1 << 20));
+
+            try {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                CsvParser parser = new CsvParser(region);
+
+                // Hanya potongan pertama yang memuat header
+                if (from == 0 && !parser.nextRow()) {
+                    return new ChunkResult(cryptos, 0);
+                }
+                while (parser.nextRow()) {
+                    Cryptocurrency crypto = FileHandler.parseRow(parser);
+                    if (crypto != null) {
+                        cryptos.add(crypto);
+                    }
+                }
+                return new ChunkResult(cryptos, parser.getRowCount());
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
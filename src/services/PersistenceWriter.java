@@ -0,0 +1,251 @@
+package services;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Thread penulis tunggal dengan group commit. Permintaan simpan yang datang berdekatan
+// digabung menjadi satu penulisan: hanya snapshot penuh terakhir yang ditulis (via file
+// sementara + fsync + rename atomik di FileHandler), lalu tick yang datang sesudahnya
+// di-append ke journal. Setiap pemanggil mendapat future yang selesai setelah data durable.
+// Tick dicatat sebagai nomor baris di BitSet plus snapshot terakhirnya; record journal
+// dibaca langsung dari kolom snapshot itu di thread ini, tanpa objek per koin.
+// Batch yang gagal tidak dibuang: snapshot terbaru yang diketahui dijadwalkan ulang sebagai
+// penyimpanan penuh dan dicoba lagi dengan jeda yang makin panjang (juga saat shutdown).
+public class PersistenceWriter {
+    private static final long COALESCE_WINDOW_MS = 25;
+    private static final long MAX_BATCH_DELAY_MS = 250;
+    private static final long MIN_RETRY_DELAY_MS = 250;
+    private static final long MAX_RETRY_DELAY_MS = 5000;
+
+    private final FileHandler fileHandler;
+    private final Thread thread;
+    private final Object lock = new Object();
+
+    // Status yang menunggu ditulis, dijaga oleh lock
+    private CryptoRepository.Snapshot pendingFullSave;
+    private long savedVersion = -1;
+    private final BitSet pendingTickRows = new BitSet();
+    private CryptoRepository.Snapshot pendingTickSnapshot;
+    private final List<CompletableFuture<Boolean>> pendingFutures = new ArrayList<>();
+    private long firstPendingAt;
+    private boolean running = true;
+    private boolean shuttingDown;
+    private long retryAt;     // 0 = tidak ada penulisan gagal yang menunggu dicoba ulang
+    private long retryDelay;
+
+    private long batches;
+    private long requests;
+
+    public PersistenceWriter(FileHandler fileHandler) {
+        this.fileHandler = fileHandler;
+        this.thread = new Thread(this::runLoop, "crypto-persistence");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Tulis ulang CSV penuh; tick yang masih menunggu sudah tercakup di snapshot ini
+    public CompletableFuture<Boolean> saveAll(CryptoRepository.Snapshot snapshot) {
+        synchronized (lock) {
+            if (snapshot.getVersion() > savedVersion) {
+                pendingFullSave = snapshot;
+                savedVersion = snapshot.getVersion();
+                clearTicks();
+            }
+            return enqueue();
+        }
+    }
+
+    // Append tick harga ke journal; rows[0..count) adalah baris yang berubah di snapshot.
+    // Nomor baris disalin, jadi pemanggil boleh memakai ulang array rows.
+    public CompletableFuture<Boolean> appendTicks(CryptoRepository.Snapshot snapshot, int[] rows, int count) {
+        synchronized (lock) {
+            if (snapshot.getVersion() <= savedVersion) {
+                // Sudah tercakup oleh penyimpanan penuh yang lebih baru
+                return enqueue();
+            }
+            if (pendingTickSnapshot != null
+                    && pendingTickSnapshot.getStructureVersion() != snapshot.getStructureVersion()) {
+                // Nomor baris lama tidak berlaku lagi; simpan penuh saja
+                pendingFullSave = snapshot;
+                savedVersion = snapshot.getVersion();
+                clearTicks();
+                return enqueue();
+            }
+            for (int i = 0; i < count; i++) {
+                pendingTickRows.set(rows[i]);
+            }
+            if (pendingTickSnapshot == null || snapshot.getVersion() > pendingTickSnapshot.getVersion()) {
+                pendingTickSnapshot = snapshot;
+            }
+            return enqueue();
+        }
+    }
+
+    private void clearTicks() {
+        pendingTickRows.clear();
+        pendingTickSnapshot = null;
+    }
+
+    // Future yang selesai setelah semua permintaan sebelumnya ditulis
+    public CompletableFuture<Boolean> flush() {
+        synchronized (lock) {
+            return enqueue();
+        }
+    }
+
+    // Tulis semua yang tersisa lalu hentikan thread
+    public void shutdown(long timeoutMillis) {
+        CompletableFuture<Boolean> drained;
+        synchronized (lock) {
+            // Penyimpanan yang gagal dicoba sekali lagi sekarang, tanpa menunggu jeda retry
+            shuttingDown = true;
+            drained = enqueue();
+        }
+        try {
+            drained.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("✗ Persistence did not drain in time: " + e.getMessage());
+        }
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    private CompletableFuture<Boolean> enqueue() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (pendingFutures.isEmpty()) {
+            firstPendingAt = System.currentTimeMillis();
+        }
+        pendingFutures.add(future);
+        requests++;
+        lock.notifyAll();
+        return future;
+    }
+
+    private void runLoop() {
+        while (true) {
+            CryptoRepository.Snapshot fullSave;
+            BitSet tickRows;
+            CryptoRepository.Snapshot tickSnapshot;
+            List<CompletableFuture<Boolean>> futures;
+            boolean finalAttempt;
+
+            synchronized (lock) {
+                try {
+                    // Jalan bila ada permintaan atau retry yang jatuh tempo; selama jeda retry
+                    // permintaan baru ikut menunggu supaya disk yang gagal tidak dihajar terus
+                    while (running) {
+                        long now = System.currentTimeMillis();
+                        if (retryAt > now && !shuttingDown) {
+                            lock.wait(retryAt - now);
+                        } else if (pendingFutures.isEmpty() && retryAt == 0) {
+                            lock.wait();
+                        } else {
+                            break;
+                        }
+                    }
+                    if (!running && pendingFutures.isEmpty() && retryAt == 0) {
+                        return;
+                    }
+
+                    // Tunggu sebentar supaya permintaan yang berdekatan ikut satu batch
+                    long deadline = Math.min(firstPendingAt + MAX_BATCH_DELAY_MS,
+                            System.currentTimeMillis() + COALESCE_WINDOW_MS);
+                    long wait;
+                    while (running && (wait = deadline - System.currentTimeMillis()) > 0) {
+                        lock.wait(wait);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+
+                fullSave = pendingFullSave;
+                tickRows = (BitSet) pendingTickRows.clone();
+                tickSnapshot = pendingTickSnapshot;
+                futures = new ArrayList<>(pendingFutures);
+
+                pendingFullSave = null;
+                clearTicks();
+                pendingFutures.clear();
+                finalAttempt = !running || shuttingDown;
+                batches++;
+            }
+
+            boolean ok = writeBatch(fullSave, tickRows, tickSnapshot);
+            // Bila percobaan terakhir saat shutdown gagal, berhenti alih-alih retry terus
+            boolean stopping = !ok && finalAttempt;
+            synchronized (lock) {
+                if (ok) {
+                    retryAt = 0;
+                    retryDelay = 0;
+                } else {
+                    scheduleRetry(fullSave, tickSnapshot);
+                }
+                if (stopping) {
+                    futures.addAll(pendingFutures);
+                    pendingFutures.clear();
+                }
+            }
+            for (CompletableFuture<Boolean> future : futures) {
+                future.complete(ok);
+            }
+            if (stopping) {
+                System.err.println("✗ Persistence stopped with unsaved changes");
+                return;
+            }
+        }
+    }
+
+    // Dipanggil dengan lock. Penyimpanan penuh dari snapshot terbaru mencakup semua yang
+    // gagal (baris maupun tick), termasuk yang datang selama batch ini ditulis.
+    private void scheduleRetry(CryptoRepository.Snapshot fullSave, CryptoRepository.Snapshot tickSnapshot) {
+        CryptoRepository.Snapshot retry = newest(newest(fullSave, tickSnapshot), newest(pendingFullSave, pendingTickSnapshot));
+        if (retry != null) {
+            pendingFullSave = retry;
+            savedVersion = Math.max(savedVersion, retry.getVersion());
+            clearTicks();
+        }
+        retryDelay = retryDelay == 0 ? MIN_RETRY_DELAY_MS : Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+        retryAt = System.currentTimeMillis() + retryDelay;
+    }
+
+    private static CryptoRepository.Snapshot newest(CryptoRepository.Snapshot a, CryptoRepository.Snapshot b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.getVersion() >= b.getVersion() ? a : b;
+    }
+
+    private boolean writeBatch(CryptoRepository.Snapshot fullSave, BitSet tickRows,
+                               CryptoRepository.Snapshot tickSnapshot) {
+        try {
+            boolean ok = true;
+            if (fullSave != null) {
+                ok = fileHandler.saveCryptocurrencies(fullSave.getCryptos());
+            }
+            if (tickSnapshot != null && !tickRows.isEmpty()) {
+                // Satu record per baris per batch, nilainya dari kolom snapshot terbaru
+                ok &= fileHandler.appendPriceTicks(tickSnapshot, tickRows);
+            }
+            return ok;
+        } catch (Exception e) {
+            System.err.println("✗ Persistence error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public long getBatchCount() {
+        synchronized (lock) {
+            return batches;
+        }
+    }
+
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+}
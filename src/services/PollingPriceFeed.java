@@ -0,0 +1,72 @@
+package services;
+
+import java.util.*;
+
+// Feed lama: memanggil APIService untuk semua simbol setiap interval. Handle harga
+// di-resolve sekali saat subscribe, jadi satu polling = satu panggilan batch.
+public class PollingPriceFeed implements PriceFeed {
+    private final APIService apiService;
+    private final long intervalMillis;
+
+    // Dijaga oleh this
+    private final Map<String, Integer> handles = new LinkedHashMap<>();
+    private String[] symbols = new String[0];
+    private int[] handleArray = new int[0];
+
+    private RefreshScheduler.Task pollTask;
+    private Listener listener;
+
+    public PollingPriceFeed(APIService apiService, long intervalMillis) {
+        this.apiService = apiService;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public synchronized void subscribe(String symbol, double lastPrice) {
+        if (handles.containsKey(symbol)) {
+            return;
+        }
+        handles.put(symbol, apiService.resolveHandle(symbol, lastPrice));
+        symbols = handles.keySet().toArray(new String[0]);
+        handleArray = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            handleArray[i] = handles.get(symbols[i]);
+        }
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        this.listener = listener;
+        pollTask = RefreshScheduler.getInstance().schedule("price-poll", intervalMillis, this::poll);
+    }
+
+    @Override
+    public synchronized void requestRefresh() {
+        if (pollTask != null) {
+            pollTask.requestNow();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (pollTask != null) {
+            pollTask.cancel();
+        }
+    }
+
+    private void poll() {
+        String[] currentSymbols;
+        int[] currentHandles;
+        synchronized (this) {
+            currentSymbols = symbols;
+            currentHandles = handleArray;
+        }
+        if (currentSymbols.length == 0) {
+            return;
+        }
+
+        double[] prices = new double[currentHandles.length];
+        apiService.getCryptoPrices(currentHandles, prices);
+        listener.onTicks(currentSymbols, prices, prices.length);
+    }
+}
@@ -0,0 +1,213 @@
+package services;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bus harga bersama untuk seluruh proses. Satu PriceFeed mengisi bus; setiap tick
+// diterapkan sekali ke repository lalu dibagikan ke semua subscriber (tabel, chart,
+// report). Setiap subscriber punya antrean conflation sendiri: selama pengiriman
+// sebelumnya belum diproses, tick baru untuk simbol yang sama hanya menimpa harga
+// terakhir, jadi window yang lambat tidak menumpuk pekerjaan dan biaya per tick
+// tidak bertambah dengan jumlah window yang terbuka.
+public class PriceBus {
+    private static PriceBus instance;
+
+    private final CryptoRepository repository;
+    private final SymbolDictionary symbols = new SymbolDictionary();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final CryptoRepository.ChangeListener structureListener = this::subscribeFeed;
+
+    // Dijaga oleh this
+    private PriceFeed feed;
+    private volatile long subscribedStructure = -1;
+
+    // Hanya dipakai thread feed
+    private int[] handles = new int[64];
+
+    public interface Subscriber {
+        void onPrices(String[] symbols, double[] prices, int count);
+    }
+
+    public static synchronized PriceBus getInstance() {
+        if (instance == null) {
+            instance = new PriceBus(CryptoRepository.getInstance());
+        }
+        return instance;
+    }
+
+    private PriceBus(CryptoRepository repository) {
+        this.repository = repository;
+    }
+
+    // Mulai menerima tick dari feed; semua simbol di repository ikut di-subscribe
+    public void start(PriceFeed priceFeed) {
+        synchronized (this) {
+            if (feed != null) {
+                throw new IllegalStateException("Price bus already started");
+            }
+            feed = priceFeed;
+        }
+        subscribeFeed(repository.snapshot());
+        repository.addChangeListener(structureListener);
+        priceFeed.start(this::onTicks);
+    }
+
+    public synchronized void requestRefresh() {
+        if (feed != null) {
+            feed.requestRefresh();
+        }
+    }
+
+    public synchronized void stop() {
+        repository.removeChangeListener(structureListener);
+        if (feed != null) {
+            feed.stop();
+        }
+    }
+
+    // Subscription feed hanya diperbarui saat daftar koin berubah
+    private void subscribeFeed(CryptoRepository.Snapshot snapshot) {
+        if (subscribedStructure == snapshot.getStructureVersion()) {
+            return;
+        }
+        synchronized (this) {
+            if (feed == null || subscribedStructure == snapshot.getStructureVersion()) {
+                return;
+            }
+            subscribedStructure = snapshot.getStructureVersion();
+            for (int row = 0; row < snapshot.size(); row++) {
+                feed.subscribe(snapshot.getSymbol(row), snapshot.getPrice(row));
+            }
+        }
+    }
+
+    private void onTicks(String[] tickSymbols, double[] prices, int count) {
+        repository.applySymbolTicks(tickSymbols, prices, count);
+        publish(tickSymbols, prices, count);
+    }
+
+    // Bagikan tick ke subscriber; dipanggil dari thread feed
+    private void publish(String[] tickSymbols, double[] prices, int count) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (handles.length < count) {
+            handles = new int[Math.max(count, handles.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            int handle = symbols.handleOf(tickSymbols[i]);
+            handles[i] = handle >= 0 ? handle : symbols.intern(tickSymbols[i]);
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(handles, prices, count);
+        }
+    }
+
+    // symbolFilter null berarti semua simbol. executor menentukan thread pengiriman,
+    // misalnya SwingUtilities::invokeLater untuk komponen UI.
+    public Subscription subscribe(Collection<String> symbolFilter, Executor executor, Subscriber subscriber) {
+        Subscription subscription = new Subscription(executor, subscriber);
+        subscription.setSymbols(symbolFilter);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public class Subscription {
+        private final Executor executor;
+        private final Subscriber subscriber;
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private volatile BitSet filter; // per handle simbol; diganti utuh, tidak diubah
+        private volatile boolean closed = false;
+
+        // Antrean conflation: harga terakhir per handle + handle yang belum dikirim, dijaga this
+        private double[] latest = new double[64];
+        private final BitSet dirty = new BitSet();
+        private long deliveries;
+        private long conflated;
+
+        Subscription(Executor executor, Subscriber subscriber) {
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        public void setSymbols(Collection<String> symbolFilter) {
+            if (symbolFilter == null) {
+                filter = null;
+                return;
+            }
+            BitSet next = new BitSet();
+            for (String symbol : symbolFilter) {
+                next.set(symbols.intern(symbol));
+            }
+            filter = next;
+        }
+
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        public synchronized long getDeliveryCount() { return deliveries; }
+        public synchronized long getConflatedCount() { return conflated; }
+
+        void offer(int[] tickHandles, double[] prices, int count) {
+            BitSet currentFilter = filter;
+            boolean accepted = false;
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    int handle = tickHandles[i];
+                    if (currentFilter != null && !currentFilter.get(handle)) {
+                        continue;
+                    }
+                    if (handle >= latest.length) {
+                        latest = Arrays.copyOf(latest, Math.max(handle + 1, latest.length * 2));
+                    }
+                    if (dirty.get(handle)) {
+                        conflated++;
+                    } else {
+                        dirty.set(handle);
+                    }
+                    latest[handle] = prices[i];
+                    accepted = true;
+                }
+            }
+            // Satu pengiriman tertunda per subscriber
+            if (accepted && queued.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            queued.set(false);
+            String[] batchSymbols;
+            double[] batchPrices;
+            int count;
+            synchronized (this) {
+                count = dirty.cardinality();
+                if (count == 0) {
+                    return;
+                }
+                batchSymbols = new String[count];
+                batchPrices = new double[count];
+                int i = 0;
+                for (int handle = dirty.nextSetBit(0); handle >= 0; handle = dirty.nextSetBit(handle + 1)) {
+                    batchSymbols[i] = symbols.symbol(handle);
+                    batchPrices[i] = latest[handle];
+                    i++;
+                }
+                dirty.clear();
+                deliveries++;
+            }
+            if (closed) {
+                return;
+            }
+            try {
+                subscriber.onPrices(batchSymbols, batchPrices, count);
+            } catch (Exception e) {
+                System.err.println("✗ Price bus subscriber error: " + e.getMessage());
+            }
+        }
+    }
+}
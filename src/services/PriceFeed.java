@@ -0,0 +1,21 @@
+package services;
+
+// Sumber tick harga yang bisa diganti-ganti: polling APIService di dalam proses atau
+// stream dari feed server lewat socket. Tick didorong ke listener begitu tersedia.
+public interface PriceFeed {
+
+    // Dipanggil dari thread milik feed; array dipakai ulang, salin bila perlu disimpan
+    interface Listener {
+        void onTicks(String[] symbols, double[] prices, int count);
+    }
+
+    // Minta harga untuk simbol ini; lastPrice dipakai sebagai titik awal bila feed belum mengenalnya
+    void subscribe(String symbol, double lastPrice);
+
+    void start(Listener listener);
+
+    // Minta harga terbaru secepatnya (feed push boleh mengabaikannya)
+    void requestRefresh();
+
+    void stop();
+}
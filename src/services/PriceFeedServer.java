@@ -0,0 +1,295 @@
+package services;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Feed server pengganti bursa untuk pengembangan lokal. Harga dibuat oleh MarketSimulator
+// dan di-stream ke semua klien dengan FeedProtocol. Server berjalan dengan satu selector
+// (non-blocking); klien yang lambat tidak menahan simulator karena batch tick yang tidak
+// muat di antrian kliennya dibuang. Bisa dijalankan terpisah dari UI:
+//
+//   java services.PriceFeedServer [port] [ticksPerSecond]
+public class PriceFeedServer {
+    public static final int DEFAULT_PORT = 9917;
+    public static final double DEFAULT_TICKS_PER_SECOND = 20;
+    private static final int MAX_PENDING_BYTES = 1 << 20;
+    private static final double SIMULATED_SECONDS_PER_SECOND = 60;
+    private static final double DEFAULT_VOLATILITY = 0.8;
+    private static final double DEFAULT_MARKET_BETA = 0.7;
+    private static final int PROBE_TIMEOUT_MS = 1000;
+
+    private static PriceFeedServer localServer;
+
+    private final int port;
+    private final double ticksPerSecond;
+    private final MarketSimulator simulator;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<ByteBuffer> broadcasts = new ConcurrentLinkedQueue<>();
+
+    // Hanya disentuh thread selector
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    private final List<Client> clients = new ArrayList<>();
+
+    private Thread thread;
+    private volatile boolean running = false;
+
+    private static class Client {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        final Deque<ByteBuffer> out = new ArrayDeque<>();
+        int pendingBytes = 0;
+        long droppedBatches = 0;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public PriceFeedServer(int port, double ticksPerSecond) throws IOException {
+        this.port = port;
+        this.ticksPerSecond = ticksPerSecond;
+        this.simulator = new MarketSimulator(System.nanoTime(), SIMULATED_SECONDS_PER_SECOND);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress("localhost", port));
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Jalankan server di dalam proses kecuali port sudah dipakai feed lain. Listener yang
+    // sudah ada hanya dipakai bila membalas HELLO dengan magic feed ini; false berarti
+    // tidak ada feed yang bisa dipakai di port tersebut.
+    public static synchronized boolean startLocalIfAbsent(int port) {
+        if (localServer != null) {
+            return true;
+        }
+        try {
+            localServer = new PriceFeedServer(port, DEFAULT_TICKS_PER_SECOND);
+            localServer.start();
+            return true;
+        } catch (BindException e) {
+            if (isFeedServer("localhost", port)) {
+                System.out.println("✓ Using existing price feed on port " + port);
+                return true;
+            }
+            System.err.println("✗ Port " + port + " is used by another process, not a price feed");
+            return false;
+        } catch (IOException e) {
+            System.err.println("✗ Could not start local price feed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Sambung sebentar dan baca frame pertama; feed asli selalu mengirim HELLO lebih dulu
+    static boolean isFeedServer(String host, int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), PROBE_TIMEOUT_MS);
+            socket.setSoTimeout(PROBE_TIMEOUT_MS);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            int length = in.readInt();
+            byte type = in.readByte();
+            return FeedProtocol.isHello(length, type, in.readInt(), in.readInt());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::runLoop, "price-feed-server");
+        thread.setDaemon(true);
+        thread.start();
+
+        simulator.start(ticksPerSecond, (handles, prices, count) -> {
+            broadcasts.add(FeedProtocol.ticksFrame(System.currentTimeMillis(), handles, prices, count));
+            selector.wakeup();
+        });
+        System.out.println("✓ Price feed server listening on localhost:" + port);
+    }
+
+    public void stop() {
+        running = false;
+        simulator.stop();
+        selector.wakeup();
+    }
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                drainBroadcasts();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Client client = (Client) key.attachment();
+                            if (key.isReadable()) {
+                                read(client);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(client);
+                            }
+                        }
+                    } catch (IOException e) {
+                        disconnect((Client) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("✗ Price feed server error: " + e.getMessage());
+        } finally {
+            for (Client client : new ArrayList<>(clients)) {
+                disconnect(client);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Client client = new Client(channel);
+        channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+
+        // HELLO selalu frame pertama, lalu klien langsung mengenal semua simbol yang sudah ada
+        enqueue(client, FeedProtocol.helloFrame(), true);
+        for (int id = 0; id < symbols.size(); id++) {
+            enqueue(client, FeedProtocol.defineFrame(id, symbols.get(id)), true);
+        }
+    }
+
+    // Frame klien yang panjangnya tidak valid atau tidak cocok dengan tipenya menutup koneksi
+    private void read(Client client) throws IOException {
+        if (client.channel.read(client.in) < 0) {
+            throw new IOException("Client closed connection");
+        }
+        client.in.flip();
+        while (client.in.remaining() >= 4) {
+            int length = client.in.getInt(client.in.position());
+            FeedProtocol.checkLength(length, FeedProtocol.MAX_CLIENT_FRAME_BYTES);
+            if (client.in.remaining() < 4 + length) {
+                client.in.compact();
+                client.in = FeedProtocol.ensureCapacity(client.in, 4 + length);
+                return;
+            }
+            int frameEnd = client.in.position() + 4 + length;
+            client.in.getInt();
+            byte type = client.in.get();
+            if (type == FeedProtocol.SUBSCRIBE) {
+                if (FeedProtocol.expectedLength(client.in, type, length) != length) {
+                    throw new IOException("Malformed subscribe frame");
+                }
+                String symbol = FeedProtocol.readString(client.in);
+                subscribe(client, symbol, client.in.getDouble());
+            }
+            client.in.position(frameEnd);
+        }
+        client.in.compact();
+    }
+
+    private void subscribe(Client client, String symbol, double startPrice) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return;
+        }
+        double initialPrice = startPrice > 0 ? startPrice : 100;
+        id = simulator.addSymbol(initialPrice, 0, DEFAULT_VOLATILITY, DEFAULT_MARKET_BETA);
+        ids.put(symbol, id);
+        symbols.add(symbol);
+
+        ByteBuffer define = FeedProtocol.defineFrame(id, symbol);
+        for (Client other : clients) {
+            enqueue(other, define.duplicate(), true);
+        }
+    }
+
+    private void drainBroadcasts() {
+        ByteBuffer frame;
+        while ((frame = broadcasts.poll()) != null) {
+            for (Client client : clients) {
+                enqueue(client, frame.duplicate(), false);
+            }
+        }
+    }
+
+    // Frame DEFINE wajib terkirim; batch tick boleh dibuang bila klien tertinggal
+    private void enqueue(Client client, ByteBuffer frame, boolean required) {
+        if (!required && client.pendingBytes + frame.remaining() > MAX_PENDING_BYTES) {
+            client.droppedBatches++;
+            return;
+        }
+        client.out.add(frame);
+        client.pendingBytes += frame.remaining();
+        SelectionKey key = client.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void write(Client client) throws IOException {
+        while (!client.out.isEmpty()) {
+            ByteBuffer frame = client.out.peek();
+            int written = client.channel.write(frame);
+            client.pendingBytes -= written;
+            if (frame.hasRemaining()) {
+                return;
+            }
+            client.out.poll();
+        }
+        client.channel.keyFor(selector).interestOps(SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Client client) {
+        if (client == null) {
+            return;
+        }
+        clients.remove(client);
+        if (client.droppedBatches > 0) {
+            System.out.println("Feed client disconnected, dropped " + client.droppedBatches + " tick batches");
+        }
+        try {
+            client.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_TICKS_PER_SECOND;
+        PriceFeedServer server = new PriceFeedServer(port, rate);
+        server.start();
+        server.thread.join();
+    }
+}
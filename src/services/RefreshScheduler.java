@@ -0,0 +1,141 @@
+package services;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Penjadwal refresh bersama untuk semua sumber periodik (polling harga, chart, dll).
+// Memakai pool thread terbatas; setiap task punya cadence sendiri dan tidak pernah
+// berjalan tumpang tindih. Pemicu yang datang saat task masih berjalan digabung
+// menjadi satu eksekusi susulan, jadi refresh yang lambat tidak menumpuk thread.
+public class RefreshScheduler {
+    private static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static RefreshScheduler instance;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    public static synchronized RefreshScheduler getInstance() {
+        if (instance == null) {
+            instance = new RefreshScheduler();
+        }
+        return instance;
+    }
+
+    private RefreshScheduler() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    // Jalankan action setiap periodMillis (mulai segera)
+    public Task schedule(String name, long periodMillis, Runnable action) {
+        Task task = new Task(name, action);
+        task.setPeriod(periodMillis);
+        return task;
+    }
+
+    // Dipanggil saat aplikasi ditutup; task yang sedang berjalan diberi waktu selesai
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public class Task {
+        private final String name;
+        private final Runnable action;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final AtomicBoolean pending = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+        private ScheduledFuture<?> future;
+        private volatile long runs;
+        private final AtomicLong coalesced = new AtomicLong();
+
+        Task(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        // Ganti cadence tanpa membuat task baru
+        public synchronized void setPeriod(long periodMillis) {
+            if (cancelled || executor.isShutdown()) {
+                return;
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+            future = executor.scheduleAtFixedRate(this::trigger, 0, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // Jalankan secepatnya di luar jadwal (digabung bila sedang berjalan)
+        public void requestNow() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                executor.execute(this::trigger);
+            } catch (RejectedExecutionException e) {
+                // Scheduler sudah dimatikan
+            }
+        }
+
+        public synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        public long getRunCount() { return runs; }
+        public long getCoalescedCount() { return coalesced.get(); }
+
+        private void trigger() {
+            if (cancelled) {
+                return;
+            }
+            if (!running.compareAndSet(false, true)) {
+                // Masih berjalan: cukup tandai satu eksekusi susulan
+                pending.set(true);
+                coalesced.incrementAndGet();
+                return;
+            }
+            try {
+                do {
+                    pending.set(false);
+                    runOnce();
+                } while (pending.get() && !cancelled);
+            } finally {
+                running.set(false);
+            }
+            // Pemicu yang masuk tepat setelah loop selesai
+            if (pending.get() && !cancelled) {
+                requestNow();
+            }
+        }
+
+        private void runOnce() {
+            runs++;
+            try {
+                action.run();
+            } catch (Exception e) {
+                // Jangan biarkan exception menghentikan jadwal periodik
+                System.err.println("✗ Refresh task " + name + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
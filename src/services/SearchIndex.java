@@ -0,0 +1,291 @@
+package services;
+
+import java.util.*;
+
+// Indeks pencarian untuk nama, simbol, kategori dan id koin. Query 3 karakter atau
+// lebih dicari sebagai substring lewat trigram: posting list trigram paling kecil
+// dipakai sebagai kandidat lalu dicek dengan indexOf, jadi biayanya sebanding dengan
+// jumlah kandidat, bukan jumlah koin. Query 1-2 karakter dicocokkan sebagai awalan
+// kata lewat posting per awalan 1-2 huruf. Query diperlakukan sebagai teks biasa, bukan regex.
+//
+// Indeks diperbarui per koin: sync() hanya menyentuh koin yang ditambah, dihapus
+// atau diubah. Dokumen yang dihapus ditandai mati dan dibuang dari posting saat
+// jumlahnya sudah melebihi dokumen hidup.
+public class SearchIndex {
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final long PREFIX_FLAG = 1L << 62;
+
+    // Nomor dokumen tidak dipakai ulang, jadi posting lama tidak pernah salah menunjuk
+    private final Map<String, Integer> docByCoinId = new HashMap<>();
+    private String[] coinIds = new String[16];
+    private String[] texts = new String[16];
+    private final BitSet alive = new BitSet();
+    private int docCount = 0;
+    private int deadCount = 0;
+
+    // Trigram dan awalan kata berbagi satu map; kunci awalan ditandai PREFIX_FLAG
+    private final GramMap grams = new GramMap();
+
+    private long syncedStructure = -1;
+
+    private static class Posting {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            // Dokumen ditambah berurutan, jadi duplikat dalam satu dokumen selalu di ujung
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    // Samakan indeks dengan daftar koin di snapshot; tidak melakukan apa-apa bila
+    // struktur snapshot tidak berubah sejak sync terakhir
+    public synchronized void sync(CryptoRepository.Snapshot snapshot) {
+        if (snapshot.getStructureVersion() == syncedStructure) {
+            return;
+        }
+        syncedStructure = snapshot.getStructureVersion();
+
+        Set<String> present = new HashSet<>(snapshot.size() * 2);
+        for (int row = 0; row < snapshot.size(); row++) {
+            String id = snapshot.getId(row);
+            present.add(id);
+            String text = documentText(id, snapshot.getName(row), snapshot.getSymbol(row), snapshot.getCategory(row));
+            Integer doc = docByCoinId.get(id);
+            if (doc == null) {
+                addDocument(id, text);
+            } else if (!texts[doc].equals(text)) {
+                removeDocument(id);
+                addDocument(id, text);
+            }
+        }
+        if (docByCoinId.size() > present.size()) {
+            List<String> removed = new ArrayList<>();
+            for (String id : docByCoinId.keySet()) {
+                if (!present.contains(id)) {
+                    removed.add(id);
+                }
+            }
+            for (String id : removed) {
+                removeDocument(id);
+            }
+        }
+        if (deadCount > docByCoinId.size()) {
+            compact();
+        }
+    }
+
+    public synchronized void add(String id, String name, String symbol, String category) {
+        removeDocument(id);
+        addDocument(id, documentText(id, name, symbol, category));
+    }
+
+    public synchronized void remove(String id) {
+        removeDocument(id);
+    }
+
+    public synchronized int size() {
+        return docByCoinId.size();
+    }
+
+    // Id koin yang cocok dengan query (tidak peka huruf besar/kecil); null bila query kosong
+    public synchronized String[] search(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        if (q.isEmpty()) {
+            return null;
+        }
+        if (q.length() < 3) {
+            return searchPrefix(q);
+        }
+
+        // Kandidat dari posting trigram terkecil
+        Posting smallest = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Posting posting = grams.get(trigramKey(q, i));
+            if (posting == null) {
+                return new String[0];
+            }
+            if (smallest == null || posting.size < smallest.size) {
+                smallest = posting;
+            }
+        }
+
+        String[] result = new String[Math.min(smallest.size, 64)];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            int doc = smallest.docs[i];
+            if (alive.get(doc) && texts[doc].contains(q)) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = coinIds[doc];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private String[] searchPrefix(String prefix) {
+        Posting posting = grams.get(prefixKey(prefix, 0, prefix.length()));
+        if (posting == null) {
+            return new String[0];
+        }
+        String[] result = new String[posting.size];
+        int count = 0;
+        for (int i = 0; i < posting.size; i++) {
+            int doc = posting.docs[i];
+            if (alive.get(doc)) {
+                result[count++] = coinIds[doc];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static String documentText(String id, String name, String symbol, String category) {
+        return (name + FIELD_SEPARATOR + symbol + FIELD_SEPARATOR + category + FIELD_SEPARATOR + id).toLowerCase();
+    }
+
+    private void addDocument(String id, String text) {
+        int doc = docCount++;
+        if (doc == texts.length) {
+            texts = Arrays.copyOf(texts, doc * 2);
+            coinIds = Arrays.copyOf(coinIds, doc * 2);
+        }
+        texts[doc] = text;
+        coinIds[doc] = id;
+        alive.set(doc);
+        docByCoinId.put(id, doc);
+        indexText(doc, text);
+    }
+
+    private void removeDocument(String id) {
+        Integer doc = docByCoinId.remove(id);
+        if (doc != null) {
+            alive.clear(doc);
+            deadCount++;
+        }
+    }
+
+    private void indexText(int doc, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            long key = trigramKey(text, i);
+            if (key >= 0) {
+                grams.getOrCreate(key).add(doc);
+            }
+        }
+
+        // Awalan 1 dan 2 huruf setiap kata
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+            if (wordStart) {
+                grams.getOrCreate(prefixKey(text, i, 1)).add(doc);
+                if (i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                    grams.getOrCreate(prefixKey(text, i, 2)).add(doc);
+                }
+            }
+        }
+    }
+
+    private static long prefixKey(String text, int start, int length) {
+        long key = PREFIX_FLAG | ((long) length << 40);
+        for (int i = 0; i < length; i++) {
+            key |= (long) text.charAt(start + i) << (16 * (1 - i));
+        }
+        return key;
+    }
+
+    // -1 untuk trigram yang melintasi batas field
+    private static long trigramKey(String text, int i) {
+        char a = text.charAt(i);
+        char b = text.charAt(i + 1);
+        char c = text.charAt(i + 2);
+        if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+            return -1;
+        }
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // Map gram -> posting dengan open addressing; kunci long tanpa boxing
+    private static class GramMap {
+        private long[] keys = new long[1024];
+        private Posting[] values = new Posting[1024];
+        private int size;
+
+        Posting get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        Posting getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            Posting posting = new Posting();
+            keys[i] = key;
+            values[i] = posting;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return posting;
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            Posting[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Posting[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = slot(oldKeys[j], mask);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+
+    // Bangun ulang posting tanpa dokumen mati
+    private void compact() {
+        Map<String, Integer> live = new HashMap<>(docByCoinId);
+        String[] oldTexts = texts;
+        docByCoinId.clear();
+        grams.clear();
+        alive.clear();
+        texts = new String[Math.max(16, live.size())];
+        coinIds = new String[texts.length];
+        docCount = 0;
+        deadCount = 0;
+        for (Map.Entry<String, Integer> entry : live.entrySet()) {
+            addDocument(entry.getKey(), oldTexts[entry.getValue()]);
+        }
+    }
+}
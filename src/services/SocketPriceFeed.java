@@ -0,0 +1,241 @@
+package services;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Klien NIO untuk PriceFeedServer. Satu thread menunggu di selector dan meneruskan setiap
+// batch TICKS ke listener begitu frame lengkap diterima. Bila koneksi putus, klien
+// menyambung ulang dan mengirim ulang semua subscription. Frame pertama dari server harus
+// HELLO dengan magic feed ini; sebelum itu tidak ada subscription yang dikirim, dan proses
+// lain yang kebetulan memakai port tersebut diputus.
+public class SocketPriceFeed implements PriceFeed {
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final InetSocketAddress address;
+
+    // Subscription yang diminta aplikasi, dijaga oleh this
+    private final Map<String, Double> subscriptions = new LinkedHashMap<>();
+    private final Queue<ByteBuffer> pendingFrames = new ConcurrentLinkedQueue<>();
+
+    // Hanya disentuh thread feed
+    private String[] symbolsById = new String[64];
+    private String[] tickSymbols = new String[256];
+    private double[] tickPrices = new double[256];
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer writing;
+    private boolean handshaken;
+
+    private volatile Selector selector;
+    private volatile boolean running = false;
+    private Thread thread;
+    private Listener listener;
+    private volatile long tickCount = 0;
+
+    public SocketPriceFeed(String host, int port) {
+        this.address = new InetSocketAddress(host, port);
+    }
+
+    @Override
+    public void subscribe(String symbol, double lastPrice) {
+        synchronized (this) {
+            if (subscriptions.containsKey(symbol)) {
+                return;
+            }
+            subscriptions.put(symbol, lastPrice);
+        }
+        pendingFrames.add(FeedProtocol.subscribeFrame(symbol, lastPrice));
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        this.listener = listener;
+        running = true;
+        thread = new Thread(this::runLoop, "price-feed-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Feed push sudah real-time
+    @Override
+    public void requestRefresh() {
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                connectAndStream();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("✗ Price feed disconnected: " + e.getMessage());
+                }
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void connectAndStream() throws IOException {
+        try (Selector sel = Selector.open(); SocketChannel channel = SocketChannel.open()) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(address);
+            SelectionKey key = channel.register(sel, SelectionKey.OP_CONNECT);
+
+            // Koneksi baru: id dari server lama tidak berlaku, kirim ulang semua subscription
+            Arrays.fill(symbolsById, null);
+            in.clear();
+            writing = null;
+            handshaken = false;
+            pendingFrames.clear();
+            synchronized (this) {
+                for (Map.Entry<String, Double> entry : subscriptions.entrySet()) {
+                    pendingFrames.add(FeedProtocol.subscribeFrame(entry.getKey(), entry.getValue()));
+                }
+            }
+            selector = sel;
+
+            while (running) {
+                sel.select();
+                if (key.isValid() && key.isConnectable() && channel.finishConnect()) {
+                    System.out.println("✓ Connected to price feed " + address);
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+                if (!channel.isConnected()) {
+                    sel.selectedKeys().clear();
+                    continue;
+                }
+                if (key.isReadable()) {
+                    read(channel);
+                }
+                boolean pending = handshaken && flushWrites(channel);
+                key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                sel.selectedKeys().clear();
+            }
+        } finally {
+            selector = null;
+        }
+    }
+
+    private boolean flushWrites(SocketChannel channel) throws IOException {
+        while (true) {
+            if (writing == null) {
+                writing = pendingFrames.poll();
+                if (writing == null) {
+                    return false;
+                }
+            }
+            channel.write(writing);
+            if (writing.hasRemaining()) {
+                return true;
+            }
+            writing = null;
+        }
+    }
+
+    private void read(SocketChannel channel) throws IOException {
+        if (channel.read(in) < 0) {
+            throw new IOException("Feed server closed connection");
+        }
+        in.flip();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            FeedProtocol.checkLength(length, FeedProtocol.MAX_SERVER_FRAME_BYTES);
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            int frameEnd = in.position() + 4 + length;
+            in.getInt();
+            byte type = in.get();
+            if (!handshaken) {
+                if (length != FeedProtocol.HELLO_BYTES || !FeedProtocol.isHello(length, type, in.getInt(), in.getInt())) {
+                    throw new IOException("Not a price feed server");
+                }
+                handshaken = true;
+            } else if (type != FeedProtocol.HELLO) {
+                int expected = FeedProtocol.expectedLength(in, type, length);
+                if (expected >= 0 && expected != length) {
+                    throw new IOException("Malformed feed frame (type " + type + ")");
+                }
+            }
+            if (type == FeedProtocol.DEFINE) {
+                define(in.getInt(), FeedProtocol.readString(in));
+            } else if (type == FeedProtocol.TICKS) {
+                readTicks();
+            }
+            in.position(frameEnd);
+        }
+
+        int partialLength = in.remaining() >= 4 ? in.getInt(in.position()) : 0;
+        in.compact();
+        in = FeedProtocol.ensureCapacity(in, 4 + partialLength);
+    }
+
+    private void define(int id, String symbol) {
+        if (id < 0) {
+            return;
+        }
+        if (id >= symbolsById.length) {
+            symbolsById = Arrays.copyOf(symbolsById, Math.max(id + 1, symbolsById.length * 2));
+        }
+        symbolsById[id] = symbol;
+    }
+
+    private void readTicks() {
+        in.getLong(); // timestamp server
+        int count = in.getInt();
+        if (count > tickSymbols.length) {
+            tickSymbols = new String[Math.max(count, tickSymbols.length * 2)];
+            tickPrices = new double[tickSymbols.length];
+        }
+
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int id = in.getInt();
+            double price = in.getDouble();
+            String symbol = id >= 0 && id < symbolsById.length ? symbolsById[id] : null;
+            if (symbol != null) {
+                tickSymbols[n] = symbol;
+                tickPrices[n] = price;
+                n++;
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        tickCount += n;
+        try {
+            listener.onTicks(tickSymbols, tickPrices, n);
+        } catch (Exception e) {
+            System.err.println("✗ Price feed listener error: " + e.getMessage());
+        }
+    }
+}
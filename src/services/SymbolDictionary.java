@@ -0,0 +1,43 @@
+package services;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Kamus simbol: setiap string simbol di-intern menjadi handle int yang padat dan tidak
+// pernah berubah. Penambahan dilakukan penulis repository; pembacaan symbol(handle)
+// dan handleOf aman tanpa lock karena array hanya diganti utuh dan isi lamanya tidak diubah.
+public class SymbolDictionary {
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[16];
+    private int size = 0;
+
+    public synchronized int intern(String symbol) {
+        Integer handle = handles.get(symbol);
+        if (handle != null) {
+            return handle;
+        }
+        String[] current = symbols;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = symbol;
+        symbols = current;
+        handles.put(symbol, size);
+        return size++;
+    }
+
+    // -1 bila simbol belum pernah di-intern
+    public int handleOf(String symbol) {
+        Integer handle = handles.get(symbol);
+        return handle == null ? -1 : handle;
+    }
+
+    public String symbol(int handle) {
+        return symbols[handle];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
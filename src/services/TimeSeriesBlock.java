@@ -0,0 +1,197 @@
+package services;
+
+import java.util.Arrays;
+
+// Satu blok deret waktu terkompresi ala Gorilla: timestamp disimpan sebagai
+// delta-of-delta, nilai disimpan sebagai XOR dengan nilai sebelumnya. Harga yang
+// jarang berubah dan tick yang periodik jadi hanya beberapa bit per titik.
+public class TimeSeriesBlock {
+    private final long startTime;
+    private byte[] bits = new byte[64];
+    private long bitCount = 0;
+
+    private int count = 0;
+    private long lastTime;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = Integer.MAX_VALUE;
+    private int lastTrailing = 0;
+    private long endTime;
+
+    public TimeSeriesBlock(long startTime) {
+        this.startTime = startTime;
+        this.lastTime = startTime;
+        writeBits(startTime, 64);
+    }
+
+    public void append(long timestamp, double value) {
+        long valueBits = Double.doubleToRawLongBits(value);
+
+        if (count == 0) {
+            lastDelta = timestamp - startTime;
+            writeBits(lastDelta, 64);
+            writeBits(valueBits, 64);
+        } else {
+            long delta = timestamp - lastTime;
+            writeDeltaOfDelta(delta - lastDelta);
+            lastDelta = delta;
+            writeValue(valueBits);
+        }
+
+        lastTime = timestamp;
+        lastValueBits = valueBits;
+        endTime = timestamp;
+        count++;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0) {
+            writeBit(0);
+        } else if (dod >= -64 && dod <= 63) {
+            writeBits(0b10, 2);
+            writeBits(dod, 7);
+        } else if (dod >= -256 && dod <= 255) {
+            writeBits(0b110, 3);
+            writeBits(dod, 9);
+        } else if (dod >= -2048 && dod <= 2047) {
+            writeBits(0b1110, 4);
+            writeBits(dod, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(dod, 64);
+        }
+    }
+
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastValueBits;
+        if (xor == 0) {
+            writeBit(0);
+            return;
+        }
+        writeBit(1);
+
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+
+        if (leading >= lastLeading && trailing >= lastTrailing) {
+            // Bit bermakna muat di jendela sebelumnya
+            writeBit(0);
+            writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            writeBit(1);
+            writeBits(leading, 5);
+            writeBits(significant - 1, 6);
+            writeBits(xor >>> trailing, significant);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    private void writeBit(int bit) {
+        writeBits(bit, 1);
+    }
+
+    private void writeBits(long value, int n) {
+        ensureCapacity(bitCount + n);
+        for (int i = n - 1; i >= 0; i--) {
+            if (((value >>> i) & 1) != 0) {
+                bits[(int) (bitCount >>> 3)] |= (byte) (0x80 >>> (bitCount & 7));
+            }
+            bitCount++;
+        }
+    }
+
+    private void ensureCapacity(long totalBits) {
+        int needed = (int) ((totalBits + 7) >>> 3);
+        if (needed > bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(needed, bits.length * 2));
+        }
+    }
+
+    public long getStartTime() { return startTime; }
+    public long getEndTime() { return endTime; }
+    public int getCount() { return count; }
+
+    // Byte terkompresi blok ini (panjang = ceil(bit / 8))
+    public byte[] toBytes() {
+        return Arrays.copyOf(bits, (int) ((bitCount + 7) >>> 3));
+    }
+
+    // Decode blok; callback dipanggil untuk titik dalam rentang [from, to]
+    public static void decode(byte[] data, int count, long from, long to, PointConsumer consumer) {
+        if (count == 0) {
+            return;
+        }
+        BitReader in = new BitReader(data);
+        long startTime = in.read(64);
+        long delta = in.read(64);
+        long time = startTime + delta;
+        long valueBits = in.read(64);
+        int leading = 0;
+        int trailing = 0;
+
+        if (time >= from && time <= to) {
+            consumer.accept(time, Double.longBitsToDouble(valueBits));
+        }
+
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                int significant = 64 - leading - trailing;
+                valueBits ^= in.read(significant) << trailing;
+            }
+
+            if (time > to) {
+                return;
+            }
+            if (time >= from) {
+                consumer.accept(time, Double.longBitsToDouble(valueBits));
+            }
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (in.read(1) == 0) return 0;
+        if (in.read(1) == 0) return in.readSigned(7);
+        if (in.read(1) == 0) return in.readSigned(9);
+        if (in.read(1) == 0) return in.readSigned(12);
+        return in.read(64);
+    }
+
+    public interface PointConsumer {
+        void accept(long timestamp, double value);
+    }
+
+    private static class BitReader {
+        private final byte[] data;
+        private long position = 0;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        long read(int n) {
+            long value = 0;
+            for (int i = 0; i < n; i++) {
+                int bit = (data[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1;
+                value = (value << 1) | bit;
+                position++;
+            }
+            return value;
+        }
+
+        long readSigned(int n) {
+            long value = read(n);
+            // Sign-extend dari n bit
+            return (value << (64 - n)) >> (64 - n);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package services;
+
+import java.util.Arrays;
+
+// Melacak K baris dengan nilai terbesar (atau terkecil) secara streaming. Kandidat
+// disimpan di min-heap terbatas; entri lama tidak dihapus dari heap saat nilainya
+// berubah, cukup ditandai basi lewat nomor versi dan dibuang saat muncul di puncak.
+//
+// Invarian: semua baris di luar kandidat bernilai <= floor. Selama masih ada K
+// kandidat dengan nilai >= floor, hasil top-K pasti benar; bila tidak (anggota top
+// turun jauh), kandidat dibangun ulang dari semua nilai, yang jarang terjadi.
+public class TopKTracker {
+    private final int k;
+    private final int capacity;
+    private final boolean largest;
+
+    // Nilai per baris (sudah dinegasikan untuk mode terkecil)
+    private double[] values = new double[0];
+    private int[] versions = new int[0];
+    private boolean[] candidate = new boolean[0];
+    private int rows;
+    private int candidateCount;
+    private double floor = Double.NEGATIVE_INFINITY;
+    private double sum;
+
+    // Min-heap entri (nilai, baris, versi)
+    private double[] heapValues;
+    private int[] heapRows;
+    private int[] heapVersions;
+    private int heapSize;
+
+    private long rebuilds;
+
+    public TopKTracker(int k, boolean largest) {
+        this.k = k;
+        this.capacity = Math.max(2 * k, k + 8);
+        this.largest = largest;
+        heapValues = new double[capacity * 2];
+        heapRows = new int[capacity * 2];
+        heapVersions = new int[capacity * 2];
+    }
+
+    // Mulai ulang dengan rowCount baris (misalnya setelah daftar koin berubah)
+    public synchronized void reset(int rowCount, double[] rowValues) {
+        rows = rowCount;
+        values = new double[rowCount];
+        versions = new int[rowCount];
+        candidate = new boolean[rowCount];
+        sum = 0;
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = largest ? rowValues[row] : -rowValues[row];
+            sum += rowValues[row];
+        }
+        rebuild();
+    }
+
+    public synchronized void update(int row, double value) {
+        double key = largest ? value : -value;
+        double previous = values[row];
+        if (key == previous) {
+            return;
+        }
+        sum += largest ? key - previous : previous - key;
+        values[row] = key;
+        versions[row]++;
+
+        if (candidate[row]) {
+            push(row, key);
+        } else if (key > floor) {
+            candidate[row] = true;
+            candidateCount++;
+            push(row, key);
+            while (candidateCount > capacity) {
+                evictMin();
+            }
+        }
+    }
+
+    // Isi out dengan baris top-K, terbaik lebih dulu; mengembalikan jumlahnya
+    public synchronized int top(int[] out) {
+        int want = Math.min(Math.min(k, out.length), rows);
+        if (countAtLeastFloor() < want) {
+            rebuild();
+        }
+        // Ambil kandidat hidup lalu urutkan (paling banyak 'capacity' entri)
+        int n = 0;
+        int[] members = new int[candidateCount];
+        for (int i = 0; i < heapSize; i++) {
+            int row = heapRows[i];
+            if (heapVersions[i] == versions[row] && candidate[row]) {
+                members[n++] = row;
+            }
+        }
+        sortByValueDescending(members, n);
+        System.arraycopy(members, 0, out, 0, Math.min(want, n));
+        return Math.min(want, n);
+    }
+
+    public synchronized double getValue(int row) {
+        return largest ? values[row] : -values[row];
+    }
+
+    // Jumlah semua nilai, dijaga per update
+    public synchronized double getSum() {
+        return sum;
+    }
+
+    public synchronized long getRebuildCount() {
+        return rebuilds;
+    }
+
+    private int countAtLeastFloor() {
+        int count = 0;
+        for (int i = 0; i < heapSize; i++) {
+            int row = heapRows[i];
+            if (heapVersions[i] == versions[row] && candidate[row] && values[row] >= floor) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Pilih ulang kandidat dari semua baris: O(n log capacity)
+    private void rebuild() {
+        rebuilds++;
+        Arrays.fill(candidate, false);
+        candidateCount = 0;
+        heapSize = 0;
+        floor = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < rows; row++) {
+            if (candidateCount < capacity) {
+                candidate[row] = true;
+                candidateCount++;
+                push(row, values[row]);
+            } else if (values[row] > heapValues[0]) {
+                candidate[row] = true;
+                candidateCount++;
+                push(row, values[row]);
+                evictMin();
+            } else {
+                floor = Math.max(floor, values[row]);
+            }
+        }
+    }
+
+    private void evictMin() {
+        while (heapSize > 0) {
+            int row = heapRows[0];
+            boolean live = heapVersions[0] == versions[row] && candidate[row];
+            double value = heapValues[0];
+            popRoot();
+            if (live) {
+                candidate[row] = false;
+                candidateCount--;
+                floor = Math.max(floor, value);
+                return;
+            }
+        }
+    }
+
+    // Buang entri basi supaya heap tidak tumbuh tanpa batas
+    private void compactHeap() {
+        int n = 0;
+        for (int i = 0; i < heapSize; i++) {
+            int row = heapRows[i];
+            if (heapVersions[i] == versions[row] && candidate[row]) {
+                heapValues[n] = heapValues[i];
+                heapRows[n] = row;
+                heapVersions[n] = heapVersions[i];
+                n++;
+            }
+        }
+        heapSize = n;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        if (heapSize * 2 > heapValues.length) {
+            int size = heapValues.length * 2;
+            heapValues = Arrays.copyOf(heapValues, size);
+            heapRows = Arrays.copyOf(heapRows, size);
+            heapVersions = Arrays.copyOf(heapVersions, size);
+        }
+    }
+
+    private void push(int row, double value) {
+        if (heapSize == heapValues.length) {
+            compactHeap();
+        }
+        int i = heapSize++;
+        heapValues[i] = value;
+        heapRows[i] = row;
+        heapVersions[i] = versions[row];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapValues[parent] <= heapValues[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void popRoot() {
+        heapSize--;
+        if (heapSize > 0) {
+            heapValues[0] = heapValues[heapSize];
+            heapRows[0] = heapRows[heapSize];
+            heapVersions[0] = heapVersions[heapSize];
+            siftDown(0);
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int l = 2 * i + 1;
+            int r = l + 1;
+            if (l < heapSize && heapValues[l] < heapValues[smallest]) {
+                smallest = l;
+            }
+            if (r < heapSize && heapValues[r] < heapValues[smallest]) {
+                smallest = r;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double value = heapValues[a];
+        heapValues[a] = heapValues[b];
+        heapValues[b] = value;
+        int row = heapRows[a];
+        heapRows[a] = heapRows[b];
+        heapRows[b] = row;
+        int version = heapVersions[a];
+        heapVersions[a] = heapVersions[b];
+        heapVersions[b] = version;
+    }
+
+    // Insertion sort; n paling banyak 'capacity'
+    private void sortByValueDescending(int[] members, int n) {
+        for (int i = 1; i < n; i++) {
+            int row = members[i];
+            int j = i - 1;
+            while (j >= 0 && before(row, members[j])) {
+                members[j + 1] = members[j];
+                j--;
+            }
+            members[j + 1] = row;
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return values[a] > values[b] || (values[a] == values[b] && a < b);
+    }
+}